@@ -0,0 +1,43 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures checking the proof of work of a v1 solution locally, and a single BLAKE2b hash of it.
+ * Run with {@code -prof gc} to confirm that neither allocates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalPowVerifierBenchmark {
+
+  /** The creation time of the puzzle of {@link Payloads#SOLUTION}, so that it has not expired. */
+  private static final long SOLVED_AT = 1_649_776_320L;
+
+  private final LocalPowVerifier localPowVerifier = new LocalPowVerifier();
+
+  private final Blake2b256 blake2b = new Blake2b256();
+
+  @Benchmark
+  public boolean verifySolution() {
+    return localPowVerifier.verify(Payloads.SOLUTION, SOLVED_AT);
+  }
+
+  @Benchmark
+  public long hashBlock() {
+    blake2b.message[15]++;
+    return blake2b.digestFirstWord();
+  }
+}
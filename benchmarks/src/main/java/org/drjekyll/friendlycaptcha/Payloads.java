@@ -0,0 +1,39 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.nio.charset.StandardCharsets;
+
+/** Request and response payloads shared by the benchmarks. */
+final class Payloads {
+
+  static final String API_KEY = "B191X90HRE6PA37HDSUIMXS6L46HQGL1A5PGJBFQ12VCV52GTI4HJA2CGI";
+
+  static final String SITEKEY = "NQTVT3JKLX8WX1VQ";
+
+  /** A real-world sized v1 solution as submitted by the widget. */
+  static final String SOLUTION =
+      "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AAAAAHSLAQABAAAAmgEBAAIAAABd2gAAAwAAAK/1FwAEAAAAKmMPAAUAAACUBgEABgAAAGhAEAAHAAAAk20FAAgAAAAzWwgACQAAAIxKEwAKAAAAiK4NAAsAAACtYgkADAAAAIb3AwANAAAAM10CAA4AAAA/2gIADwAAAETWDQAQAAAA4hMEABEAAACBjwgAEgAAALgHBAATAAAA1S8CABQAAACiNAMAFQAAAMpGGgAWAAAAokIVABcAAAAJxQgAGAAAAKgMCQAZAAAA0aMJABoAAACJKAgAGwAAAC25BwAcAAAA3tALAB0AAAB8kQQAHgAAAHlVFAAfAAAAMDgnACAAAAAesRcAIQAAACRXHQAiAAAA0hYLACMAAADS5iYAJAAAAE39AwAlAAAAZkIAACYAAACl/BQAJwAAAM5+BAAoAAAAg6sTACkAAABKpAsAKgAAANTHFgArAAAAOwgLACwAAAA1EAkALQAAAPnrGwAuAAAAXdgyAC8AAAAVQAoA.AgAF";
+
+  static final byte[] V1_SUCCESS = bytes("{\"success\":true}");
+
+  static final byte[] V1_ERROR =
+      bytes(
+          "{\"success\":false,\"errors\":[\"solution_timeout_or_duplicate\"],"
+              + "\"details\":\"The solution has expired or already been used\"}");
+
+  static final byte[] V2_SUCCESS =
+      bytes(
+          "{\"success\":true,\"data\":{\"event_id\":\"ev_5f6b2d9c1a\",\"challenge\":"
+              + "{\"timestamp\":\"2024-01-01T00:00:00Z\",\"origin\":\"https://example.com\"},"
+              + "\"risk_intelligence\":null}}");
+
+  static final byte[] V2_ERROR =
+      bytes(
+          "{\"success\":false,\"error\":{\"error_code\":\"response_duplicate\","
+              + "\"detail\":\"The response has already been used\"}}");
+
+  private Payloads() {}
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
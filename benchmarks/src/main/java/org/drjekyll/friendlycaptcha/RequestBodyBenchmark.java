@@ -0,0 +1,43 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+/** Measures building the URL-encoded POST body for both API versions. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBodyBenchmark {
+
+  private final FriendlyCaptchaParams params =
+      new FriendlyCaptchaParams(Payloads.API_KEY, Payloads.SITEKEY);
+
+  private final VerificationResponseReader reader =
+      new VerificationResponseReader(new ObjectMapper());
+
+  private final FriendlyCaptchaV1Client v1Client = new FriendlyCaptchaV1Client(params, reader);
+
+  private final FriendlyCaptchaV2Client v2Client = new FriendlyCaptchaV2Client(params, reader);
+
+  @Benchmark
+  public byte[] buildRequestBodyV1() {
+    return v1Client.buildRequestBody(Payloads.SOLUTION);
+  }
+
+  @Benchmark
+  public byte[] buildRequestBodyV2() {
+    return v2Client.buildRequestBody(Payloads.SOLUTION);
+  }
+}
@@ -0,0 +1,47 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+
+/** Measures decoding of success and error siteverify responses for both API versions. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseReaderBenchmark {
+
+  private final VerificationResponseReader reader =
+      new VerificationResponseReader(new ObjectMapper());
+
+  @Benchmark
+  public VerificationResponse readV1Success() {
+    return reader.readResponse(new ByteArrayInputStream(Payloads.V1_SUCCESS));
+  }
+
+  @Benchmark
+  public VerificationResponse readV1Error() {
+    return reader.readResponse(new ByteArrayInputStream(Payloads.V1_ERROR));
+  }
+
+  @Benchmark
+  public VerificationResponse readV2Success() {
+    return reader.readResponse(new ByteArrayInputStream(Payloads.V2_SUCCESS));
+  }
+
+  @Benchmark
+  public VerificationResponse readV2Error() {
+    return reader.readResponse(new ByteArrayInputStream(Payloads.V2_ERROR));
+  }
+}
@@ -0,0 +1,67 @@
+package org.drjekyll.friendlycaptcha;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process siteverify endpoint that answers every request with a fixed success payload, so that
+ * the benchmarks measure the client and not the network or the real API.
+ *
+ * <p>{@code /v1} answers in the v1 response format, {@code /v2} in the v2 response format.
+ */
+final class StubSiteverifyServer implements AutoCloseable {
+
+  private final HttpServer server;
+
+  private final ExecutorService executor;
+
+  static {
+    // without TCP_NODELAY, delayed ACKs add ~40 ms to every loopback round trip
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  StubSiteverifyServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    server.setExecutor(executor);
+    server.createContext("/v1", exchange -> respond(exchange, Payloads.V1_SUCCESS));
+    server.createContext("/v2", exchange -> respond(exchange, Payloads.V2_SUCCESS));
+    server.start();
+  }
+
+  /** Returns the endpoint URI answering in the response format of the given API version. */
+  URI endpoint(FriendlyCaptchaVersion version) {
+    InetSocketAddress address = server.getAddress();
+    return URI.create(
+        "http://"
+            + address.getHostString()
+            + ':'
+            + address.getPort()
+            + (version == FriendlyCaptchaVersion.V2 ? "/v2" : "/v1"));
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+    try (InputStream requestBody = exchange.getRequestBody()) {
+      requestBody.transferTo(OutputStream.nullOutputStream());
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(body);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the complete request/response path of {@link FriendlyCaptchaVerifier} against the
+ * in-process {@link StubSiteverifyServer}: request building, the HTTP round trip over loopback and
+ * response parsing.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VerifierBenchmark {
+
+  @Param({"V1", "V2"})
+  public FriendlyCaptchaVersion version;
+
+  private StubSiteverifyServer server;
+
+  private FriendlyCaptchaVerifier verifier;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    server = new StubSiteverifyServer();
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(version)
+            .verificationEndpoint(server.endpoint(version))
+            .apiKey(Payloads.API_KEY)
+            .sitekey(Payloads.SITEKEY)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    server.close();
+  }
+
+  @Benchmark
+  public boolean verify() {
+    return verifier.verify(Payloads.SOLUTION);
+  }
+
+  @Benchmark
+  public boolean verifyAsync() {
+    return verifier.verifyAsync(Payloads.SOLUTION).join();
+  }
+}
@@ -0,0 +1,54 @@
+package org.drjekyll.friendlycaptcha;
+
+/**
+ * A concurrency limit that adapts to the latency of the API using additive increase and
+ * multiplicative decrease (AIMD).
+ *
+ * <p>The limit grows by one for every call that completes within {@value #TOLERANCE} times the
+ * baseline round-trip time while at least half of the limit is in use. It shrinks by {@value
+ * #BACKOFF_RATIO} when a call is dropped or takes longer than that. The baseline follows decreasing
+ * round-trip times immediately and increasing ones slowly, so it tracks the latency of an unloaded
+ * API even if the API gets permanently slower, e.g. after a routing change.
+ */
+class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+  static final int DEFAULT_INITIAL_LIMIT = 20;
+
+  static final int DEFAULT_MAX_LIMIT = 200;
+
+  private static final double TOLERANCE = 2.0;
+
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private static final double BASELINE_DRIFT = 0.01;
+
+  private final int maxLimit;
+
+  private double limit;
+
+  private double baselineRttNanos;
+
+  AimdConcurrencyLimit(int initialLimit, int maxLimit) {
+    this.maxLimit = maxLimit;
+    this.limit = Math.min(initialLimit, maxLimit);
+  }
+
+  @Override
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  @Override
+  public void onSample(long rttNanos, boolean dropped, int inFlight) {
+    if (baselineRttNanos == 0 || rttNanos < baselineRttNanos) {
+      baselineRttNanos = rttNanos;
+    } else {
+      baselineRttNanos += (rttNanos - baselineRttNanos) * BASELINE_DRIFT;
+    }
+    if (dropped || rttNanos > baselineRttNanos * TOLERANCE) {
+      limit = Math.max(1, limit * BACKOFF_RATIO);
+    } else if (inFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+}
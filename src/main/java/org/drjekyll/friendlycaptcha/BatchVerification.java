@@ -0,0 +1,102 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.drjekyll.friendlycaptcha.StringUtil.isEmpty;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Verifies a batch of solutions with at most a given number of verifications in flight.
+ *
+ * <p>Each completed verification starts the next pending one. Verifications that complete
+ * immediately (e.g. verdict cache hits) are processed in a loop instead of recursively, so long
+ * runs of them cannot overflow the stack. A failed verification is recorded in its {@link
+ * VerificationOutcome} and does not abort the batch.
+ */
+class BatchVerification {
+
+  private final String[] solutions;
+
+  private final VerificationOutcome[] outcomes;
+
+  private final Function<String, CompletableFuture<Boolean>> verification;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private final AtomicInteger remaining;
+
+  private final CompletableFuture<List<VerificationOutcome>> result = new CompletableFuture<>();
+
+  BatchVerification(
+      Collection<String> solutions, Function<String, CompletableFuture<Boolean>> verification) {
+    this.solutions = solutions.toArray(new String[0]);
+    this.outcomes = new VerificationOutcome[this.solutions.length];
+    this.verification = verification;
+    this.remaining = new AtomicInteger(this.solutions.length);
+  }
+
+  /** Starts the batch and returns a future that completes once every solution has an outcome. */
+  CompletableFuture<List<VerificationOutcome>> start(int maxParallelism) {
+    if (solutions.length == 0) {
+      result.complete(List.of());
+    }
+    for (int i = 0; i < Math.min(maxParallelism, solutions.length); i++) {
+      verifyNext();
+    }
+    return result;
+  }
+
+  private void verifyNext() {
+    int index;
+    while ((index = next.getAndIncrement()) < solutions.length) {
+      String solution = solutions[index];
+      if (isEmpty(solution)) {
+        complete(index, new VerificationOutcome(solution, false, null));
+        continue;
+      }
+      CompletableFuture<Boolean> future;
+      try {
+        future = verification.apply(solution);
+      } catch (RuntimeException e) {
+        future = CompletableFuture.failedFuture(e);
+      }
+      if (!future.isDone()) {
+        int pending = index;
+        future.whenComplete(
+            (valid, ex) -> {
+              complete(pending, outcome(solution, valid, ex));
+              verifyNext();
+            });
+        return;
+      }
+      complete(index, future.handle((valid, ex) -> outcome(solution, valid, ex)).join());
+    }
+  }
+
+  private void complete(int index, VerificationOutcome outcome) {
+    outcomes[index] = outcome;
+    if (remaining.decrementAndGet() == 0) {
+      result.complete(Arrays.asList(outcomes));
+    }
+  }
+
+  private static VerificationOutcome outcome(
+      String solution, @Nullable Boolean valid, @Nullable Throwable ex) {
+    if (ex == null) {
+      return new VerificationOutcome(solution, valid, null);
+    }
+    Throwable cause =
+        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    FriendlyCaptchaException error =
+        cause instanceof FriendlyCaptchaException fce
+            ? fce
+            : new FriendlyCaptchaException("Could not check solution", cause);
+    return new VerificationOutcome(solution, null, error);
+  }
+}
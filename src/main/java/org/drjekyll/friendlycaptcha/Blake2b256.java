@@ -0,0 +1,95 @@
+package org.drjekyll.friendlycaptcha;
+
+/**
+ * BLAKE2b with a 32-byte digest and no key, restricted to messages of exactly one 128-byte block,
+ * which is all the proof of work of v1 puzzles needs.
+ *
+ * <p>The message and the working vector are kept in fields that are reused for every hash, so
+ * hashing does not allocate. An instance must therefore not be shared between threads.
+ */
+final class Blake2b256 {
+
+  static final int BLOCK_LENGTH = 128;
+
+  private static final long[] IV = {
+    0x6a09e667f3bcc908L,
+    0xbb67ae8584caa73bL,
+    0x3c6ef372fe94f82bL,
+    0xa54ff53a5f1d36f1L,
+    0x510e527fade682d1L,
+    0x9b05688c2b3e6c1fL,
+    0x1f83d9abfb41bd6bL,
+    0x5be0cd19137e2179L
+  };
+
+  private static final byte[][] SIGMA = {
+    {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+    {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3},
+    {11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4},
+    {7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8},
+    {9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13},
+    {2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9},
+    {12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11},
+    {13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10},
+    {6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5},
+    {10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0},
+    {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+    {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3}
+  };
+
+  /** The parameter block: digest length 32, no key, fanout 1, depth 1. */
+  private static final long[] H = IV.clone();
+
+  static {
+    H[0] ^= 0x01010000L | 32;
+  }
+
+  /** The message block as sixteen little-endian words, to be filled in before hashing. */
+  final long[] message = new long[16];
+
+  private final long[] v = new long[16];
+
+  /** Hashes {@link #message} and returns the full 32-byte digest as four little-endian words. */
+  void digest(long[] digest) {
+    compress();
+    for (int i = 0; i < 4; i++) {
+      digest[i] = H[i] ^ v[i] ^ v[i + 8];
+    }
+  }
+
+  /** Hashes {@link #message} and returns the first eight bytes of the digest, little-endian. */
+  long digestFirstWord() {
+    compress();
+    return H[0] ^ v[0] ^ v[8];
+  }
+
+  private void compress() {
+    long[] m = message;
+    System.arraycopy(H, 0, v, 0, 8);
+    System.arraycopy(IV, 0, v, 8, 8);
+    v[12] ^= BLOCK_LENGTH;
+    v[14] = ~v[14];
+    for (byte[] s : SIGMA) {
+      mix(0, 4, 8, 12, m[s[0]], m[s[1]]);
+      mix(1, 5, 9, 13, m[s[2]], m[s[3]]);
+      mix(2, 6, 10, 14, m[s[4]], m[s[5]]);
+      mix(3, 7, 11, 15, m[s[6]], m[s[7]]);
+      mix(0, 5, 10, 15, m[s[8]], m[s[9]]);
+      mix(1, 6, 11, 12, m[s[10]], m[s[11]]);
+      mix(2, 7, 8, 13, m[s[12]], m[s[13]]);
+      mix(3, 4, 9, 14, m[s[14]], m[s[15]]);
+    }
+  }
+
+  private void mix(int a, int b, int c, int d, long x, long y) {
+    long[] w = v;
+    w[a] += w[b] + x;
+    w[d] = Long.rotateRight(w[d] ^ w[a], 32);
+    w[c] += w[d];
+    w[b] = Long.rotateRight(w[b] ^ w[c], 24);
+    w[a] += w[b] + y;
+    w[d] = Long.rotateRight(w[d] ^ w[a], 16);
+    w[c] += w[d];
+    w[b] = Long.rotateRight(w[b] ^ w[c], 63);
+  }
+}
@@ -0,0 +1,201 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Limits the number of verifications in flight, so that a slow API cannot tie up all threads of the
+ * application.
+ *
+ * <p>Calls beyond the limit wait in a bounded FIFO queue for a free slot, optionally for a limited
+ * time, and fail with a {@link BulkheadFullException} otherwise. Waiting never blocks a thread: a
+ * queued call is a future that is completed when a slot is handed over to it.
+ *
+ * <p>The limit is either fixed or adapts to the round-trip times of the calls (see {@link
+ * AimdConcurrencyLimit}), so that load is shed early when the API gets slower.
+ */
+class Bulkhead {
+
+  private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+  private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final ConcurrencyLimit limit;
+
+  private final int maxQueuedCalls;
+
+  @Nullable private final Duration maxQueueTime;
+
+  private int inFlight;
+
+  Bulkhead(int maxConcurrentCalls, int maxQueuedCalls, @Nullable Duration maxQueueTime) {
+    this(ConcurrencyLimit.fixed(maxConcurrentCalls), maxQueuedCalls, maxQueueTime);
+  }
+
+  Bulkhead(ConcurrencyLimit limit, int maxQueuedCalls, @Nullable Duration maxQueueTime) {
+    if (maxQueuedCalls < 0) {
+      throw new IllegalArgumentException("Maximum number of queued calls must not be negative");
+    }
+    this.limit = limit;
+    this.maxQueuedCalls = maxQueuedCalls;
+    this.maxQueueTime = maxQueueTime;
+  }
+
+  /**
+   * Runs the call as soon as a slot is free and releases the slot when the call completes.
+   * Cancelling the returned future removes a waiting call from the queue, or cancels the running
+   * call and releases its slot without taking its round-trip time into account.
+   */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture<Void> waiter = acquire();
+    if (!waiter.isDone()) {
+      result.whenComplete(
+          (value, ex) -> {
+            if (result.isCancelled()) {
+              withdraw(waiter);
+            }
+          });
+    }
+    waiter.whenComplete(
+        (acquired, ex) -> {
+          if (ex != null) {
+            result.completeExceptionally(ex);
+          } else if (result.isDone()) {
+            // cancelled while the slot was handed over
+            releaseUnused();
+          } else {
+            run(call, result);
+          }
+        });
+    return result;
+  }
+
+  synchronized BulkheadStats stats() {
+    return new BulkheadStats(inFlight, waiters.size(), rejected.sum(), limit.getLimit());
+  }
+
+  private <T> void run(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+    long start = System.nanoTime();
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException e) {
+      release(System.nanoTime() - start, false);
+      result.completeExceptionally(e);
+      return;
+    }
+    result.whenComplete(
+        (value, ex) -> {
+          if (result.isCancelled()) {
+            future.cancel(true);
+          }
+        });
+    future.whenComplete(
+        (value, ex) -> {
+          if (result.isCancelled()) {
+            releaseUnused();
+            return;
+          }
+          release(System.nanoTime() - start, FriendlyCaptchaException.indicatesUnavailableApi(ex));
+          if (ex == null) {
+            result.complete(value);
+          } else {
+            result.completeExceptionally(ex);
+          }
+        });
+  }
+
+  private CompletableFuture<Void> acquire() {
+    CompletableFuture<Void> waiter;
+    synchronized (this) {
+      if (inFlight < limit.getLimit() && waiters.isEmpty()) {
+        inFlight++;
+        return ACQUIRED;
+      }
+      if (waiters.size() >= maxQueuedCalls) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(
+            new BulkheadFullException("Too many concurrent verifications"));
+      }
+      waiter = new CompletableFuture<>();
+      waiters.add(waiter);
+    }
+    if (maxQueueTime != null) {
+      CompletableFuture.delayedExecutor(maxQueueTime.toNanos(), TimeUnit.NANOSECONDS)
+          .execute(() -> expire(waiter));
+    }
+    return waiter;
+  }
+
+  /**
+   * Records the round-trip time of the finished call and hands its slot over to the next waiter, or
+   * frees it if nobody is waiting or the limit has been lowered. If the limit has been raised,
+   * further waiters are admitted.
+   */
+  private void release(long rttNanos, boolean dropped) {
+    synchronized (this) {
+      limit.onSample(rttNanos, dropped, inFlight);
+      inFlight--;
+    }
+    admitWaiters();
+  }
+
+  /** Frees the slot of a call that was cancelled, which says nothing about the API. */
+  private void releaseUnused() {
+    synchronized (this) {
+      inFlight--;
+    }
+    admitWaiters();
+  }
+
+  private void admitWaiters() {
+    while (true) {
+      CompletableFuture<Void> next;
+      synchronized (this) {
+        if (inFlight >= limit.getLimit()) {
+          return;
+        }
+        next = waiters.poll();
+        if (next == null) {
+          return;
+        }
+        inFlight++;
+      }
+      // completed outside the lock, because the dependent call runs in this thread
+      if (!next.complete(null)) {
+        synchronized (this) {
+          inFlight--;
+        }
+      }
+    }
+  }
+
+  private void withdraw(CompletableFuture<Void> waiter) {
+    synchronized (this) {
+      waiters.remove(waiter);
+    }
+    // if the slot is being handed over, the waiter's callback releases it again
+    waiter.cancel(false);
+  }
+
+  private void expire(CompletableFuture<Void> waiter) {
+    synchronized (this) {
+      if (!waiters.remove(waiter)) {
+        // the slot has already been handed over
+        return;
+      }
+    }
+    rejected.increment();
+    waiter.completeExceptionally(
+        new BulkheadFullException("Timed out waiting for a free verification slot"));
+  }
+}
@@ -0,0 +1,17 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a verification is rejected locally because the configured maximum number of
+ * concurrent verifications is reached and it could not be queued, or it waited in the queue for
+ * longer than the configured maximum queue time. No request was sent to the API.
+ */
+public class BulkheadFullException extends FriendlyCaptchaException {
+
+  @Serial private static final long serialVersionUID = 4186259368316170127L;
+
+  BulkheadFullException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,23 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the concurrency bulkhead of a verifier. */
+@Value
+public class BulkheadStats {
+
+  /** Number of verifications currently sent to the API. */
+  int inFlightCount;
+
+  /** Number of verifications currently waiting for a free slot. */
+  int queueDepth;
+
+  /** Number of verifications rejected so far, either because the queue was full or timed out. */
+  long rejectedCount;
+
+  /**
+   * The current limit of verifications in flight. Constant unless adaptive concurrency limiting is
+   * enabled.
+   */
+  int limit;
+}
@@ -0,0 +1,212 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Stops calling the API while it is unavailable, so that verifications do not wait for timeouts
+ * during an outage.
+ *
+ * <p>The outcomes of the most recent calls are kept in a ring buffer. When at least half of it is
+ * filled and the failure rate reaches the threshold, the circuit opens and verifications are
+ * answered by the {@link CircuitBreakerPolicy} without a request. After the open duration, a single
+ * probe request is let through: the circuit closes if it succeeds and opens again otherwise. Only
+ * failures that indicate an unavailable API count, see {@link
+ * FriendlyCaptchaException#indicatesUnavailableApi(Throwable)}. Cancelled calls are not recorded.
+ *
+ * <p>The closed state only uses atomic variables, so verifications never block each other.
+ */
+@Slf4j
+class CircuitBreaker {
+
+  private static final int EMPTY = 0;
+
+  private static final int SUCCESS = 1;
+
+  private static final int FAILURE = 2;
+
+  private final AtomicReference<CircuitBreakerState> state =
+      new AtomicReference<>(CircuitBreakerState.CLOSED);
+
+  private final AtomicIntegerArray outcomes;
+
+  private final AtomicLong cursor = new AtomicLong();
+
+  private final AtomicInteger bufferedCalls = new AtomicInteger();
+
+  private final AtomicInteger failedCalls = new AtomicInteger();
+
+  private final LongAdder shortCircuited = new LongAdder();
+
+  private final CircuitBreakerPolicy policy;
+
+  private final int minimumCalls;
+
+  private final int failureRateThreshold;
+
+  private final long openDurationNanos;
+
+  private final LongSupplier nanoClock;
+
+  private volatile long openedAt;
+
+  CircuitBreaker(
+      CircuitBreakerPolicy policy,
+      int windowSize,
+      int failureRateThreshold,
+      Duration openDuration) {
+    this(policy, windowSize, failureRateThreshold, openDuration, System::nanoTime);
+  }
+
+  CircuitBreaker(
+      CircuitBreakerPolicy policy,
+      int windowSize,
+      int failureRateThreshold,
+      Duration openDuration,
+      LongSupplier nanoClock) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("Circuit breaker window size must be greater than zero");
+    }
+    if (failureRateThreshold <= 0 || failureRateThreshold > 100) {
+      throw new IllegalArgumentException(
+          "Circuit breaker failure rate threshold must be between 1 and 100 percent");
+    }
+    if (openDuration.isNegative() || openDuration.isZero()) {
+      throw new IllegalArgumentException("Circuit breaker open duration must be positive");
+    }
+    this.policy = policy;
+    this.outcomes = new AtomicIntegerArray(windowSize);
+    this.minimumCalls = (windowSize + 1) / 2;
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Sends the call if the circuit is closed, or as probe if the open duration has elapsed.
+   * Otherwise the verification is answered by the policy. Cancelling the returned future cancels
+   * the call.
+   */
+  CompletableFuture<Boolean> execute(Supplier<CompletableFuture<Boolean>> call) {
+    return execute(call, null);
+  }
+
+  /**
+   * Like {@link #execute(Supplier)}, with the local verdict that {@link
+   * CircuitBreakerPolicy#VERIFY_LOCALLY} answers with. Without one, that policy rejects.
+   */
+  CompletableFuture<Boolean> execute(
+      Supplier<CompletableFuture<Boolean>> call, @Nullable BooleanSupplier localVerdict) {
+    CircuitBreakerState current = state.get();
+    if (current == CircuitBreakerState.CLOSED) {
+      CompletableFuture<Boolean> future = start(call);
+      return FriendlyCaptchaVerifier.propagateCancellation(
+          future.whenComplete((valid, ex) -> record(ex)), future);
+    }
+    if (current == CircuitBreakerState.OPEN
+        && nanoClock.getAsLong() - openedAt >= openDurationNanos
+        && state.compareAndSet(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN)) {
+      CompletableFuture<Boolean> future = start(call);
+      CompletableFuture<Boolean> probe = future.whenComplete((valid, ex) -> completeProbe(ex));
+      // a cancelled probe skips the callback above, but must not leave the circuit half open
+      probe.whenComplete(
+          (valid, ex) -> {
+            if (probe.isCancelled()) {
+              completeProbe(ex);
+            }
+          });
+      return FriendlyCaptchaVerifier.propagateCancellation(probe, future);
+    }
+    return shortCircuit(localVerdict);
+  }
+
+  CircuitBreakerStats stats() {
+    return new CircuitBreakerStats(
+        state.get(), bufferedCalls.get(), failedCalls.get(), shortCircuited.sum());
+  }
+
+  private static CompletableFuture<Boolean> start(Supplier<CompletableFuture<Boolean>> call) {
+    try {
+      return call.get();
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private void record(@Nullable Throwable ex) {
+    if (isUnanswered(ex) || state.get() != CircuitBreakerState.CLOSED) {
+      return;
+    }
+    boolean failed = FriendlyCaptchaException.indicatesUnavailableApi(ex);
+    int index = (int) Math.floorMod(cursor.getAndIncrement(), (long) outcomes.length());
+    int previous = outcomes.getAndSet(index, failed ? FAILURE : SUCCESS);
+    int buffered = previous == EMPTY ? bufferedCalls.incrementAndGet() : bufferedCalls.get();
+    int failures = failedCalls.addAndGet((failed ? 1 : 0) - (previous == FAILURE ? 1 : 0));
+    if (failed && buffered >= minimumCalls && failures * 100 >= failureRateThreshold * buffered) {
+      openedAt = nanoClock.getAsLong();
+      if (state.compareAndSet(CircuitBreakerState.CLOSED, CircuitBreakerState.OPEN)) {
+        log.warn("Opened circuit breaker after {} of {} verifications failed", failures, buffered);
+      }
+    }
+  }
+
+  private void completeProbe(@Nullable Throwable ex) {
+    if (isUnanswered(ex)) {
+      // the open duration has already elapsed, so the next verification probes again
+      state.set(CircuitBreakerState.OPEN);
+    } else if (FriendlyCaptchaException.indicatesUnavailableApi(ex)) {
+      openedAt = nanoClock.getAsLong();
+      state.set(CircuitBreakerState.OPEN);
+    } else {
+      for (int i = 0; i < outcomes.length(); i++) {
+        outcomes.set(i, EMPTY);
+      }
+      bufferedCalls.set(0);
+      failedCalls.set(0);
+      state.set(CircuitBreakerState.CLOSED);
+      log.info("Closed circuit breaker after successful probe");
+    }
+  }
+
+  private CompletableFuture<Boolean> shortCircuit(@Nullable BooleanSupplier localVerdict) {
+    shortCircuited.increment();
+    VerificationFailureEvent.emit(
+        VerificationFailureEvent.CIRCUIT_OPEN, null, "Answered by policy " + policy);
+    switch (policy) {
+      case ACCEPT:
+        return CompletableFuture.completedFuture(Boolean.TRUE);
+      case REJECT:
+        return CompletableFuture.completedFuture(Boolean.FALSE);
+      case VERIFY_LOCALLY:
+        try {
+          return CompletableFuture.completedFuture(
+              localVerdict != null && localVerdict.getAsBoolean());
+        } catch (RuntimeException e) {
+          return CompletableFuture.failedFuture(e);
+        }
+      default:
+        return CompletableFuture.failedFuture(
+            new CircuitBreakerOpenException(
+                "Circuit breaker is open, verification API unavailable"));
+    }
+  }
+
+  /** Calls rejected locally or cancelled by the caller tell nothing about the API. */
+  private static boolean isUnanswered(@Nullable Throwable ex) {
+    Throwable cause = ex != null && ex.getCause() != null ? ex.getCause() : ex;
+    return cause instanceof BulkheadFullException
+        || cause instanceof RateLimitedException
+        || cause instanceof CancellationException;
+  }
+}
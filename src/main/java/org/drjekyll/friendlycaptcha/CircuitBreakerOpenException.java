@@ -0,0 +1,16 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a verification is rejected locally because the circuit breaker is open and the policy
+ * is {@link CircuitBreakerPolicy#THROW}. No request was sent to the API.
+ */
+public class CircuitBreakerOpenException extends FriendlyCaptchaException {
+
+  @Serial private static final long serialVersionUID = -6011862583148372981L;
+
+  CircuitBreakerOpenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,21 @@
+package org.drjekyll.friendlycaptcha;
+
+/** What a verification returns while the circuit breaker is open and no request is sent. */
+public enum CircuitBreakerPolicy {
+
+  /** Fail open: the solution is accepted, so users can continue while the API is unavailable. */
+  ACCEPT,
+
+  /** Fail closed: the solution is rejected, as if the API had returned an invalid verdict. */
+  REJECT,
+
+  /** The verification fails with a {@link CircuitBreakerOpenException}. */
+  THROW,
+
+  /**
+   * Degraded mode: the solution is accepted if its proof of work is valid, see {@link
+   * LocalPowVerifier}. The signature of the puzzle and whether the solution has been used before
+   * cannot be checked locally. Requires API version 1.
+   */
+  VERIFY_LOCALLY
+}
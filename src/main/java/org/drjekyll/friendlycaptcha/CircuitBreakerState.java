@@ -0,0 +1,14 @@
+package org.drjekyll.friendlycaptcha;
+
+/** The state of the circuit breaker of a verifier. */
+public enum CircuitBreakerState {
+
+  /** Requests are sent to the API and their outcomes are recorded. */
+  CLOSED,
+
+  /** Too many requests failed recently, so verifications are answered by the policy. */
+  OPEN,
+
+  /** A single probe request is sent to find out whether the API is available again. */
+  HALF_OPEN
+}
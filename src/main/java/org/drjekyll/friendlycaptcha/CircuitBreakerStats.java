@@ -0,0 +1,20 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the circuit breaker of a verifier. */
+@Value
+public class CircuitBreakerStats {
+
+  /** The current state. */
+  CircuitBreakerState state;
+
+  /** Number of outcomes in the sliding window. */
+  int bufferedCalls;
+
+  /** Number of failures in the sliding window. */
+  int failedCalls;
+
+  /** Number of verifications answered by the policy so far, because the circuit was open. */
+  long shortCircuitedCount;
+}
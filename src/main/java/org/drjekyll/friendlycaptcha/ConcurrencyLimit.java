@@ -0,0 +1,28 @@
+package org.drjekyll.friendlycaptcha;
+
+/**
+ * The number of verifications the {@link Bulkhead} allows in flight. Implementations are only
+ * accessed while the bulkhead holds its lock, so they need no synchronization of their own.
+ */
+interface ConcurrencyLimit {
+
+  /** Returns the current limit. */
+  int getLimit();
+
+  /**
+   * Records the outcome of a call, so that adaptive implementations can adjust the limit.
+   *
+   * @param rttNanos the round-trip time of the call
+   * @param dropped {@code true} if the call failed because of an overloaded or unreachable API
+   *     (timeouts, network errors, 429 and 5xx responses)
+   * @param inFlight the number of calls in flight when the call completed, including this one
+   */
+  default void onSample(long rttNanos, boolean dropped, int inFlight) {
+    // fixed limits ignore samples
+  }
+
+  /** Returns a limit that never changes. */
+  static ConcurrencyLimit fixed(int limit) {
+    return () -> limit;
+  }
+}
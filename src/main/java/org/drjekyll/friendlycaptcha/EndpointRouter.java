@@ -0,0 +1,172 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Ranks the verification endpoints by a passive health score, so that every request goes to the
+ * endpoint that is fastest at the moment.
+ *
+ * <p>Each endpoint keeps exponentially weighted moving averages of its round-trip time and its
+ * failure rate. The score is the latency, penalized by the failure rate, and endpoints without
+ * samples come first so that they are measured. An endpoint that fails {@value #EJECTION_THRESHOLD}
+ * times in a row is ejected: it is ranked after all other endpoints and only used if they fail as
+ * well. After the ejection duration, its score is reset and the next request probes it. If the
+ * probe fails, it is ejected again right away.
+ *
+ * <p>Only failures that indicate an unavailable API count, see {@link
+ * FriendlyCaptchaException#indicatesUnavailableApi(Throwable)}. Requests cancelled because a hedged
+ * request won count with the time until cancellation, so that slow endpoints lose their rank.
+ */
+@Slf4j
+class EndpointRouter {
+
+  private static final double ALPHA = 0.3;
+
+  private static final double ERROR_PENALTY = 10;
+
+  private static final int EJECTION_THRESHOLD = 5;
+
+  private final List<Score> scores;
+
+  private final long ejectionNanos;
+
+  private final LongSupplier nanoClock;
+
+  EndpointRouter(List<URI> endpoints, Duration ejectionDuration) {
+    this(endpoints, ejectionDuration, System::nanoTime);
+  }
+
+  EndpointRouter(List<URI> endpoints, Duration ejectionDuration, LongSupplier nanoClock) {
+    this.scores = endpoints.stream().map(Score::new).toList();
+    this.ejectionNanos = ejectionDuration.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /** Returns the endpoints ordered from best to worst, ejected endpoints last. */
+  List<URI> rank() {
+    long now = nanoClock.getAsLong();
+    int size = scores.size();
+    URI[] endpoints = new URI[size];
+    double[] ranks = new double[size];
+    for (int i = 0; i < size; i++) {
+      Score score = scores.get(i);
+      double rank = score.rank(now);
+      // insertion sort, there are only a few endpoints
+      int j = i;
+      while (j > 0 && ranks[j - 1] > rank) {
+        endpoints[j] = endpoints[j - 1];
+        ranks[j] = ranks[j - 1];
+        j--;
+      }
+      endpoints[j] = score.endpoint;
+      ranks[j] = rank;
+    }
+    return List.of(endpoints);
+  }
+
+  /** Records the outcome of a request to the endpoint. */
+  void record(URI endpoint, long rttNanos, @Nullable Throwable ex) {
+    for (Score score : scores) {
+      if (score.endpoint.equals(endpoint)) {
+        score.record(rttNanos, ex, nanoClock.getAsLong());
+        return;
+      }
+    }
+  }
+
+  List<EndpointStats> stats() {
+    long now = nanoClock.getAsLong();
+    List<EndpointStats> stats = new ArrayList<>(scores.size());
+    for (Score score : scores) {
+      stats.add(score.stats(now));
+    }
+    return stats;
+  }
+
+  private final class Score {
+
+    private final URI endpoint;
+
+    private double latencyNanos;
+
+    private double errorRate;
+
+    private boolean sampled;
+
+    private int consecutiveFailures;
+
+    private long ejectedUntil;
+
+    private boolean ejected;
+
+    private boolean probing;
+
+    Score(URI endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    synchronized double rank(long now) {
+      if (ejected) {
+        if (now - ejectedUntil < 0) {
+          return Double.MAX_VALUE;
+        }
+        ejected = false;
+        probing = true;
+        sampled = false;
+        errorRate = 0;
+        log.info("Probing verification endpoint {} again", endpoint);
+      }
+      return sampled ? latencyNanos * (1 + ERROR_PENALTY * errorRate) : 0;
+    }
+
+    synchronized void record(long rttNanos, @Nullable Throwable ex, long now) {
+      Throwable cause =
+          ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+      if (cause instanceof CancellationException) {
+        addLatency(rttNanos);
+      } else if (FriendlyCaptchaException.indicatesUnavailableApi(cause)) {
+        errorRate += (1 - errorRate) * ALPHA;
+        consecutiveFailures++;
+        if (!ejected && (probing || consecutiveFailures >= EJECTION_THRESHOLD)) {
+          ejected = true;
+          probing = false;
+          ejectedUntil = now + ejectionNanos;
+          log.warn(
+              "Ejected verification endpoint {} after {} consecutive failures",
+              endpoint,
+              consecutiveFailures);
+        }
+      } else {
+        addLatency(rttNanos);
+        errorRate -= errorRate * ALPHA;
+        consecutiveFailures = 0;
+        probing = false;
+      }
+    }
+
+    synchronized EndpointStats stats(long now) {
+      return new EndpointStats(
+          endpoint,
+          Duration.ofNanos((long) latencyNanos),
+          errorRate,
+          ejected && now - ejectedUntil < 0);
+    }
+
+    private void addLatency(long rttNanos) {
+      if (sampled) {
+        latencyNanos += (rttNanos - latencyNanos) * ALPHA;
+      } else {
+        latencyNanos = rttNanos;
+        sampled = true;
+      }
+    }
+  }
+}
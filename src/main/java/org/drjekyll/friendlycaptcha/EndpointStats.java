@@ -0,0 +1,22 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import java.time.Duration;
+import lombok.Value;
+
+/** A point-in-time snapshot of the health score of a verification endpoint. */
+@Value
+public class EndpointStats {
+
+  /** The endpoint URI. */
+  URI endpoint;
+
+  /** Exponentially weighted moving average of the round-trip time, or zero before the first. */
+  Duration latency;
+
+  /** Exponentially weighted moving average of the failure rate, between 0 and 1. */
+  double errorRate;
+
+  /** Whether the endpoint is currently ejected because it failed repeatedly. */
+  boolean ejected;
+}
@@ -1,8 +1,11 @@
 package org.drjekyll.friendlycaptcha;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.HashMap;
+import java.util.Map;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Machine-readable error codes returned by the Friendly Captcha API in an error response body.
@@ -67,6 +70,29 @@ public enum ErrorCode {
   RESPONSE_DUPLICATE("The response has already been used"),
   ;
 
+  private static final Map<String, ErrorCode> BY_CODE = new HashMap<>();
+
+  static {
+    for (ErrorCode errorCode : values()) {
+      try {
+        JsonProperty property =
+            ErrorCode.class.getField(errorCode.name()).getAnnotation(JsonProperty.class);
+        BY_CODE.put(property.value(), errorCode);
+      } catch (NoSuchFieldException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
   /** Human-readable description of this error, suitable for logging. */
   private final String description;
+
+  /**
+   * Returns the error code for the given wire value (e.g. {@code "secret_invalid"}), or {@code
+   * null} if the API returned a code this version of the library does not know.
+   */
+  @Nullable
+  static ErrorCode forCode(String code) {
+    return BY_CODE.get(code);
+  }
 }
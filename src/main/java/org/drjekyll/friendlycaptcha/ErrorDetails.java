@@ -1,17 +0,0 @@
-package org.drjekyll.friendlycaptcha;
-
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Builder;
-import lombok.Value;
-import lombok.extern.jackson.Jacksonized;
-
-@Value
-@Jacksonized
-@Builder
-@JsonIgnoreProperties(ignoreUnknown = true)
-class ErrorDetails {
-
-  @JsonProperty("error_code")
-  ErrorCode errorCode;
-}
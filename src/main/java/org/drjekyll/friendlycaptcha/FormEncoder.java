@@ -0,0 +1,108 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes values for {@code application/x-www-form-urlencoded} bodies straight into a byte array.
+ *
+ * <p>The output is identical to {@code URLEncoder.encode(value, StandardCharsets.UTF_8)}, but
+ * neither intermediate strings nor byte arrays are created.
+ */
+final class FormEncoder {
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+  private static final boolean[] UNRESERVED = new boolean[128];
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      UNRESERVED[c] = true;
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      UNRESERVED[c] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      UNRESERVED[c] = true;
+    }
+    UNRESERVED['.'] = true;
+    UNRESERVED['-'] = true;
+    UNRESERVED['*'] = true;
+    UNRESERVED['_'] = true;
+  }
+
+  private FormEncoder() {}
+
+  /** Returns the number of bytes {@link #encode(String, byte[], int)} writes for the value. */
+  static int encodedLength(String value) {
+    int length = 0;
+    int size = value.length();
+    for (int i = 0; i < size; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        length += UNRESERVED[c] || c == ' ' ? 1 : 3;
+      } else if (c < 0x800) {
+        length += 6;
+      } else if (isSurrogatePair(value, i)) {
+        length += 12;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length += 3;
+      } else {
+        length += 9;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Writes the encoded value into the target array.
+   *
+   * @return the offset after the last written byte
+   */
+  static int encode(String value, byte[] target, int offset) {
+    int position = offset;
+    int size = value.length();
+    for (int i = 0; i < size; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (UNRESERVED[c]) {
+          target[position++] = (byte) c;
+        } else if (c == ' ') {
+          target[position++] = '+';
+        } else {
+          position = escape(c, target, position);
+        }
+      } else if (c < 0x800) {
+        position = escape(0xC0 | c >> 6, target, position);
+        position = escape(0x80 | c & 0x3F, target, position);
+      } else if (isSurrogatePair(value, i)) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        position = escape(0xF0 | codePoint >> 18, target, position);
+        position = escape(0x80 | codePoint >> 12 & 0x3F, target, position);
+        position = escape(0x80 | codePoint >> 6 & 0x3F, target, position);
+        position = escape(0x80 | codePoint & 0x3F, target, position);
+      } else if (Character.isSurrogate(c)) {
+        // unpaired surrogates are replaced like String.getBytes does it
+        position = escape('?', target, position);
+      } else {
+        position = escape(0xE0 | c >> 12, target, position);
+        position = escape(0x80 | c >> 6 & 0x3F, target, position);
+        position = escape(0x80 | c & 0x3F, target, position);
+      }
+    }
+    return position;
+  }
+
+  private static boolean isSurrogatePair(String value, int index) {
+    return Character.isHighSurrogate(value.charAt(index))
+        && index + 1 < value.length()
+        && Character.isLowSurrogate(value.charAt(index + 1));
+  }
+
+  private static int escape(int b, byte[] target, int position) {
+    target[position] = '%';
+    target[position + 1] = HEX[b >> 4 & 0xF];
+    target[position + 2] = HEX[b & 0xF];
+    return position + 3;
+  }
+}
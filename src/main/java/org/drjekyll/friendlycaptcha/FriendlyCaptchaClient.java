@@ -1,25 +1,44 @@
 package org.drjekyll.friendlycaptcha;
 
-import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpRequest;
+import org.jspecify.annotations.Nullable;
 
 interface FriendlyCaptchaClient {
 
   /** Returns the default verification endpoint URL for this API version. */
   URI getDefaultEndpoint();
 
-  /** Builds the URL-encoded POST body for the given captcha solution. */
-  String buildRequestBody(String solution);
+  /**
+   * Builds the URL-encoded POST body for the given captcha solution. The constant parameters are
+   * encoded once per client, see {@link RequestBodyTemplate}.
+   */
+  byte[] buildRequestBody(String solution);
 
-  /** Adds any version-specific request headers to the builder (e.g. {@code X-API-Key} for v2). */
+  /**
+   * Adds any version-specific request headers to the builder (e.g. {@code X-API-Key} for v2).
+   * Called once per verifier when the request template is built.
+   */
   default void addVersionSpecificHeaders(HttpRequest.Builder requestBuilder) {
     // only if additional headers are required
   }
 
   /**
-   * Parses the response body and returns {@code true} if the solution is valid, {@code false} if
-   * rejected, or throws {@link FriendlyCaptchaException} on API errors.
+   * Checks the format of a solution locally, see {@link SolutionPreCheck}.
+   *
+   * @param solution a non-empty solution
+   * @param nowEpochSeconds the current time in seconds since the epoch
+   * @return the error code the API would reject the solution with, or {@code null} if the solution
+   *     has to be verified by the API
+   */
+  @Nullable ErrorCode preCheck(String solution, long nowEpochSeconds);
+
+  /** Returns the error code the API rejects a solution with that has already been used. */
+  ErrorCode getDuplicateErrorCode();
+
+  /**
+   * Evaluates an already decoded response and returns {@code true} if the solution is valid, {@code
+   * false} if rejected, or throws {@link FriendlyCaptchaException} on API errors.
    */
-  boolean processResponse(int statusCode, InputStream body);
+  boolean processResponse(int statusCode, VerificationResponse response);
 }
@@ -1,6 +1,9 @@
 package org.drjekyll.friendlycaptcha;
 
 import java.io.Serial;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 
@@ -15,7 +18,12 @@ import org.jspecify.annotations.Nullable;
  * <p>{@link #getStatusCode()} returns the HTTP status code when the API responded with an error, or
  * {@code null} for non-HTTP failures (network errors, unreadable responses, invalid configuration).
  * {@link #getErrorCode()} returns the machine-readable error code when the API included one in its
- * response body.
+ * response body. {@link #getRetryAfter()} returns the delay requested by a {@code Retry-After}
+ * header, typically sent with 429 and 503 responses.
+ *
+ * <p>Exceptions for error responses of the API carry no stack trace. They are created on a thread
+ * of the HTTP client, so the stack trace would not point to the caller anyway, and filling it in is
+ * expensive when bots cause many of them.
  */
 @Getter
 public class FriendlyCaptchaException extends RuntimeException {
@@ -34,6 +42,12 @@ public class FriendlyCaptchaException extends RuntimeException {
    */
   @Nullable private final ErrorCode errorCode;
 
+  /**
+   * The delay the API asked clients to wait before sending another request in a {@code Retry-After}
+   * header, or {@code null} if the response did not include one.
+   */
+  @Nullable private final Duration retryAfter;
+
   FriendlyCaptchaException(@Nullable String message) {
     this(message, null, null, null);
   }
@@ -64,8 +78,62 @@ public class FriendlyCaptchaException extends RuntimeException {
       @Nullable Integer statusCode,
       @Nullable ErrorCode errorCode,
       @Nullable Throwable cause) {
-    super(message, cause);
+    this(message, statusCode, errorCode, cause, null, true);
+  }
+
+  private FriendlyCaptchaException(
+      String message,
+      @Nullable Integer statusCode,
+      @Nullable ErrorCode errorCode,
+      @Nullable Throwable cause,
+      @Nullable Duration retryAfter,
+      boolean writableStackTrace) {
+    super(message, cause, true, writableStackTrace);
     this.statusCode = statusCode;
     this.errorCode = errorCode;
+    this.retryAfter = retryAfter;
+  }
+
+  /** Creates an exception without stack trace for an error response of the verification API. */
+  static FriendlyCaptchaException ofErrorResponse(
+      String message, int statusCode, @Nullable ErrorCode errorCode) {
+    return new FriendlyCaptchaException(message, statusCode, errorCode, null, null, false);
+  }
+
+  /** Returns a copy of this exception that carries the delay of a {@code Retry-After} header. */
+  FriendlyCaptchaException withRetryAfter(Duration retryAfter) {
+    boolean writableStackTrace = getStackTrace().length > 0;
+    FriendlyCaptchaException copy =
+        new FriendlyCaptchaException(
+            getMessage(), statusCode, errorCode, getCause(), retryAfter, writableStackTrace);
+    if (writableStackTrace) {
+      copy.setStackTrace(getStackTrace());
+    }
+    return copy;
+  }
+
+  /**
+   * Returns {@code true} if the failure indicates that the API is overloaded or unreachable:
+   * network errors, timeouts, unreadable responses, 429 and 5xx responses. Verifications rejected
+   * locally by the bulkhead, the rate limiter or the circuit breaker do not count, and neither do
+   * cancelled ones ({@link CancellationException}), which the caller abandoned.
+   */
+  static boolean indicatesUnavailableApi(@Nullable Throwable failure) {
+    Throwable cause =
+        failure instanceof CompletionException && failure.getCause() != null
+            ? failure.getCause()
+            : failure;
+    if (cause == null
+        || cause instanceof BulkheadFullException
+        || cause instanceof RateLimitedException
+        || cause instanceof CircuitBreakerOpenException
+        || cause instanceof CancellationException) {
+      return false;
+    }
+    if (cause instanceof FriendlyCaptchaException) {
+      Integer statusCode = ((FriendlyCaptchaException) cause).statusCode;
+      return statusCode == null || statusCode == 429 || statusCode >= 500;
+    }
+    return true;
   }
 }
@@ -2,17 +2,14 @@ package org.drjekyll.friendlycaptcha;
 
 import static org.drjekyll.friendlycaptcha.StringUtil.isEmpty;
 
-import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Collection;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 /** Verifies a Friendly Captcha solution using the v1 API. */
-@RequiredArgsConstructor
 @Slf4j
 class FriendlyCaptchaV1Client implements FriendlyCaptchaClient {
 
@@ -21,7 +18,19 @@ class FriendlyCaptchaV1Client implements FriendlyCaptchaClient {
 
   private final FriendlyCaptchaParams friendlyCaptchaParams;
 
-  private final VerificationResponseReader verificationResponseReader;
+  private final RequestBodyTemplate requestBodyTemplate;
+
+  FriendlyCaptchaV1Client(FriendlyCaptchaParams friendlyCaptchaParams) {
+    this.friendlyCaptchaParams = friendlyCaptchaParams;
+    String constantParameters =
+        "&secret=" + URLEncoder.encode(friendlyCaptchaParams.getApiKey(), StandardCharsets.UTF_8);
+    if (!isEmpty(friendlyCaptchaParams.getSitekey())) {
+      constantParameters +=
+          "&sitekey="
+              + URLEncoder.encode(friendlyCaptchaParams.getSitekey(), StandardCharsets.UTF_8);
+    }
+    this.requestBodyTemplate = new RequestBodyTemplate("solution", constantParameters);
+  }
 
   @Override
   public URI getDefaultEndpoint() {
@@ -29,38 +38,37 @@ class FriendlyCaptchaV1Client implements FriendlyCaptchaClient {
   }
 
   @Override
-  public String buildRequestBody(@NonNull String solution) {
-    String entity =
-        "solution="
-            + URLEncoder.encode(solution, StandardCharsets.UTF_8)
-            + "&secret="
-            + URLEncoder.encode(friendlyCaptchaParams.getApiKey(), StandardCharsets.UTF_8);
-    if (!isEmpty(friendlyCaptchaParams.getSitekey())) {
-      entity +=
-          "&sitekey="
-              + URLEncoder.encode(friendlyCaptchaParams.getSitekey(), StandardCharsets.UTF_8);
-    }
-    return entity;
+  public byte[] buildRequestBody(@NonNull String solution) {
+    return requestBodyTemplate.render(solution);
+  }
+
+  @Override
+  @Nullable
+  public ErrorCode preCheck(String solution, long nowEpochSeconds) {
+    return SolutionPreCheck.checkV1(solution, nowEpochSeconds);
+  }
+
+  @Override
+  public ErrorCode getDuplicateErrorCode() {
+    return ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE;
   }
 
   @Override
-  public boolean processResponse(int statusCode, InputStream inputStream) {
-    VerificationResponseV1 response =
-        verificationResponseReader.readResponse(inputStream, VerificationResponseV1.class);
+  public boolean processResponse(int statusCode, VerificationResponse response) {
     if (statusCode == 200) {
       return response.isSuccess();
     }
 
     log.warn("Received error response: {}", response);
 
-    Collection<ErrorCode> errors = response.getErrors();
-    if (errors == null || errors.isEmpty()) {
-      throw new FriendlyCaptchaException("Verification API returned error status", statusCode);
+    ErrorCode errorCode = response.getErrorCode();
+    if (errorCode == null) {
+      throw FriendlyCaptchaException.ofErrorResponse(
+          "Verification API returned error status", statusCode, null);
     }
 
-    ErrorCode errorCode = errors.iterator().next();
     String message =
         isEmpty(response.getDetails()) ? errorCode.getDescription() : response.getDetails();
-    throw new FriendlyCaptchaException(message, statusCode, errorCode);
+    throw FriendlyCaptchaException.ofErrorResponse(message, statusCode, errorCode);
   }
 }
@@ -2,17 +2,15 @@ package org.drjekyll.friendlycaptcha;
 
 import static org.drjekyll.friendlycaptcha.StringUtil.isEmpty;
 
-import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 /** Verifies a Friendly Captcha solution using the v2 API. */
-@RequiredArgsConstructor
 @Slf4j
 class FriendlyCaptchaV2Client implements FriendlyCaptchaClient {
 
@@ -21,7 +19,18 @@ class FriendlyCaptchaV2Client implements FriendlyCaptchaClient {
 
   private final FriendlyCaptchaParams friendlyCaptchaParams;
 
-  private final VerificationResponseReader verificationResponseReader;
+  private final RequestBodyTemplate requestBodyTemplate;
+
+  FriendlyCaptchaV2Client(FriendlyCaptchaParams friendlyCaptchaParams) {
+    this.friendlyCaptchaParams = friendlyCaptchaParams;
+    String constantParameters = "";
+    if (!isEmpty(friendlyCaptchaParams.getSitekey())) {
+      constantParameters =
+          "&sitekey="
+              + URLEncoder.encode(friendlyCaptchaParams.getSitekey(), StandardCharsets.UTF_8);
+    }
+    this.requestBodyTemplate = new RequestBodyTemplate("response", constantParameters);
+  }
 
   @Override
   public URI getDefaultEndpoint() {
@@ -29,14 +38,8 @@ class FriendlyCaptchaV2Client implements FriendlyCaptchaClient {
   }
 
   @Override
-  public String buildRequestBody(@NonNull String solution) {
-    String entity = "response=" + URLEncoder.encode(solution, StandardCharsets.UTF_8);
-    if (!isEmpty(friendlyCaptchaParams.getSitekey())) {
-      entity +=
-          "&sitekey="
-              + URLEncoder.encode(friendlyCaptchaParams.getSitekey(), StandardCharsets.UTF_8);
-    }
-    return entity;
+  public byte[] buildRequestBody(@NonNull String solution) {
+    return requestBodyTemplate.render(solution);
   }
 
   @Override
@@ -45,20 +48,30 @@ class FriendlyCaptchaV2Client implements FriendlyCaptchaClient {
   }
 
   @Override
-  public boolean processResponse(int statusCode, InputStream inputStream) {
-    VerificationResponseV2 response =
-        verificationResponseReader.readResponse(inputStream, VerificationResponseV2.class);
+  @Nullable
+  public ErrorCode preCheck(String solution, long nowEpochSeconds) {
+    return SolutionPreCheck.checkV2(solution);
+  }
+
+  @Override
+  public ErrorCode getDuplicateErrorCode() {
+    return ErrorCode.RESPONSE_DUPLICATE;
+  }
+
+  @Override
+  public boolean processResponse(int statusCode, VerificationResponse response) {
     if (statusCode == 200) {
       return response.isSuccess();
     }
 
     log.warn("Received error response: {}", response);
 
-    ErrorDetails error = response.getError();
-    if (error == null || error.getErrorCode() == null) {
-      throw new FriendlyCaptchaException("Verification API returned error status", statusCode);
+    ErrorCode errorCode = response.getErrorCode();
+    if (errorCode == null) {
+      throw FriendlyCaptchaException.ofErrorResponse(
+          "Verification API returned error status", statusCode, null);
     }
-    throw new FriendlyCaptchaException(
-        error.getErrorCode().getDescription(), statusCode, error.getErrorCode());
+    throw FriendlyCaptchaException.ofErrorResponse(
+        errorCode.getDescription(), statusCode, errorCode);
   }
 }
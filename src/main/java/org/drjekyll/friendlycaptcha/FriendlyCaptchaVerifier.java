@@ -2,16 +2,22 @@ package org.drjekyll.friendlycaptcha;
 
 import static org.drjekyll.friendlycaptcha.StringUtil.isEmpty;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.ProxySelector;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
@@ -41,26 +47,104 @@ import tools.jackson.databind.ObjectMapper;
 @Slf4j
 public class FriendlyCaptchaVerifier {
 
-  private final URI effectiveEndpoint;
+  /** The number of verifications in flight used by {@link #verifyAll(Collection)}. */
+  public static final int DEFAULT_BATCH_PARALLELISM = 16;
 
-  private final Duration socketTimeout;
+  private static final Duration DEFAULT_VERDICT_CACHE_TTL = Duration.ofSeconds(30);
+
+  private static final long DEFAULT_REPLAY_FILTER_MEMORY = 4L << 20;
+
+  private static final double DEFAULT_REPLAY_FILTER_FALSE_POSITIVE_RATE = 0.001;
+
+  private static final Duration DEFAULT_REPLAY_FILTER_WINDOW = Duration.ofHours(1);
+
+  private static final Duration DEFAULT_RATE_LIMIT_MAX_WAIT = Duration.ofSeconds(1);
+
+  private static final int DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+
+  private static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE = 50;
+
+  private static final Duration DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+
+  private static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(100);
+
+  private static final Duration DEFAULT_ENDPOINT_EJECTION_DURATION = Duration.ofSeconds(30);
+
+  private final List<URI> endpoints;
 
   private final boolean verbose;
 
+  private final boolean preCheckSolutions;
+
+  private final boolean localProofOfWorkCheck;
+
+  private final FriendlyCaptchaVersion version;
+
+  @Nullable private final LocalPowVerifier localPowVerifier;
+
   private final FriendlyCaptchaClient friendlyCaptchaClient;
 
+  private final VerificationResponseReader verificationResponseReader;
+
   private final HttpClient httpClient;
 
-  private final String userAgent;
+  @Nullable private final Executor callbackExecutor;
+
+  @Nullable private final VerdictStore verdictStore;
+
+  @Nullable private final InFlightVerifications inFlightVerifications;
+
+  @Nullable private final ReplayFilter replayFilter;
+
+  @Nullable private final ReplayFilterPolicy replayFilterPolicy;
+
+  @Nullable private final Bulkhead bulkhead;
+
+  @Nullable private final RateLimiter rateLimiter;
+
+  private final RateLimitPolicy rateLimitPolicy;
+
+  @Nullable private final CircuitBreaker circuitBreaker;
+
+  @Nullable private final Retry retry;
+
+  @Nullable private final HedgedRequests hedgedRequests;
+
+  @Nullable private final EndpointRouter endpointRouter;
+
+  @Nullable private final VerifierMetrics metrics;
+
+  @Nullable private final VerificationListener listener;
+
+  private final AtomicLong verificationIds = new AtomicLong();
+
+  /** URI, headers and timeout shared by all requests, copied for each request. */
+  private final HttpRequest.Builder requestTemplate;
 
   /**
    * @param apiKey An API key that proves it's you, create one on the Friendly Captcha website.
    * @param objectMapper A custom Jackson object mapper if you want to use it
    * @param verificationEndpoint The URI that points to the verification API endpoint. If not set,
    *     each version uses its own default endpoint.
+   * @param verificationEndpoints Several verification API endpoints, e.g. the global and the EU
+   *     endpoint of API v2. A request is sent to the first endpoint, and a hedged request to the
+   *     next one whenever the previous ones have not answered within {@code hedgeDelay} or failed
+   *     without a definitive answer. The first definitive answer is used and the other requests are
+   *     cancelled. Replaces {@code verificationEndpoint} if not empty.
+   * @param hedgeDelay How long to wait for an endpoint before a hedged request is sent to the next
+   *     one. A {@code null} value means the 95th percentile of recent round-trip times, so that
+   *     only the slowest 5% of the requests are hedged (500 milliseconds until enough requests have
+   *     been observed).
    * @param connectTimeout The timeout until a connection is established. A timeout value of zero is
    *     interpreted as an infinite timeout. A {@code null} value is interpreted as undefined
    *     (system default if applicable).
+   * @param httpVersion The HTTP protocol version to request. {@link HttpClient.Version#HTTP_2}
+   *     multiplexes all concurrent requests to an endpoint as streams over a single connection, and
+   *     falls back to HTTP/1.1 if the server or a proxy does not support HTTP/2. {@link
+   *     HttpClient.Version#HTTP_1_1} never attempts HTTP/2, e.g. behind proxies that break it, and
+   *     opens one connection per concurrent request instead. Limit the concurrent requests, and so
+   *     the streams per connection, with {@code maxConcurrentCalls}. Default: {@link
+   *     HttpClient.Version#HTTP_2}
    * @param socketTimeout The timeout for the entire request (connecting, sending, and receiving the
    *     response). A {@code null} value means no request timeout is applied. Default: 30 seconds
    * @param sitekey An optional sitekey that you want to make sure the puzzle was generated from.
@@ -74,13 +158,97 @@ public class FriendlyCaptchaVerifier {
    *     port and user name must be set as well.
    * @param verbose Logs INFO messages with detailed information.
    * @param version The Friendly Captcha API version to use. Defaults to API version 1 (V1)
+   * @param callbackExecutor The executor that completes the futures returned by {@link
+   *     #verifyAsync(String)}, so that dependent stages run there. If not set, the futures complete
+   *     on a thread of the HTTP client.
+   * @param verdictCacheSize The maximum number of verdicts to remember per solution. A repeated
+   *     verification of the same solution within {@code verdictCacheTtl} returns the first verdict
+   *     without calling the API, e.g. for double submits or retried requests. Note that this
+   *     includes accepted verdicts, so keep the time to live short. Default: 0 (disabled)
+   * @param verdictCacheTtl How long a cached verdict is returned. Default: 30 seconds
+   * @param verdictStore Where verdicts are remembered instead of the verdict cache, e.g. a {@link
+   *     MappedVerdictStore} shared by all JVMs on a host. Replaces {@code verdictCacheSize} and
+   *     {@code verdictCacheTtl}. Default: none
+   * @param coalesceRequests If {@code true}, concurrent verifications of the same solution share a
+   *     single API call instead of sending one request each. Default: {@code false}
+   * @param replayFilterPolicy Enables the replay filter, which remembers the solutions of the last
+   *     {@code replayFilterWindow} in a fixed amount of memory, and decides what happens to
+   *     solutions that were probably seen before: {@link ReplayFilterPolicy#REJECT} rejects them
+   *     without calling the API. Consulted after the verdict cache. Default: none (disabled)
+   * @param replayFilterMemory The memory of the replay filter in bytes. Together with the false
+   *     positive rate, it determines how many solutions are remembered. Default: 4 MiB
+   * @param replayFilterFalsePositiveRate The probability that the replay filter takes a new
+   *     solution for a replay. Default: 0.001
+   * @param replayFilterWindow How long the replay filter remembers a solution, unless more
+   *     solutions arrive than fit into its memory. Default: 1 hour
+   * @param maxConcurrentCalls The maximum number of requests in flight to the API. Further
+   *     verifications wait in a queue or are rejected with a {@link BulkheadFullException}.
+   *     Default: 0 (unlimited)
+   * @param maxQueuedCalls The maximum number of verifications waiting for a free slot when {@code
+   *     maxConcurrentCalls} is reached. Default: 0 (reject immediately)
+   * @param maxQueueTime How long a verification may wait for a free slot before it is rejected. A
+   *     {@code null} value means it waits until a slot is free.
+   * @param virtualThreads If {@code true}, the HTTP client runs its tasks on virtual threads, and
+   *     so do the futures of {@link #verifyAsync(String)} unless a {@code callbackExecutor} is set.
+   *     Requires Java 21 or newer at runtime. Default: {@code false}
+   * @param adaptiveConcurrency If {@code true}, the number of requests in flight adapts to the
+   *     round-trip times of the API: it grows while the API responds quickly and shrinks when it
+   *     gets slower or fails, so that load is shed early. {@code maxConcurrentCalls} is the upper
+   *     bound then (default: 200). Default: {@code false}
+   * @param rateLimit The maximum number of requests per second sent to the API, so that the quota
+   *     of the API key is not exceeded. Hedged requests and retries count as well. The rate is
+   *     halved on every 429 response and restored gradually, and no request is sent before the
+   *     delay of a {@code Retry-After} header has passed. Default: 0 (unlimited)
+   * @param rateLimitBurst The number of requests that may be sent at once after a quiet period.
+   *     Default: the rate limit per second, rounded up
+   * @param rateLimitPolicy What happens to a verification when the rate limit is reached: {@link
+   *     RateLimitPolicy#WAIT} waits up to {@code rateLimitMaxWait} for the next free slot, {@link
+   *     RateLimitPolicy#THROW} fails with a {@link RateLimitedException}, {@link
+   *     RateLimitPolicy#ACCEPT} and {@link RateLimitPolicy#REJECT} answer without calling the API.
+   *     Default: {@link RateLimitPolicy#WAIT}
+   * @param rateLimitMaxWait How long a verification may wait for a free slot with {@link
+   *     RateLimitPolicy#WAIT} before it fails with a {@link RateLimitedException}. Default: 1
+   *     second
+   * @param maxAttempts How often a verification is sent at most. Network errors, timeouts, 429 and
+   *     5xx responses are retried, responses with an {@link ErrorCode} never. Default: 1 (no
+   *     retries)
+   * @param retryBackoff The exponential backoff before the second attempt, doubled for each further
+   *     attempt. Half of it is random, and a {@code Retry-After} header takes precedence. Default:
+   *     100 milliseconds
+   * @param retryDeadline The time a verification may take including its retries. No retry is
+   *     started that would begin after it. Default: {@code socketTimeout} times {@code
+   *     maxAttempts}, or none if there is no {@code socketTimeout}
+   * @param metrics Receives counters and latencies of the verifications. Without metrics, the
+   *     verifications are not timed. Default: none
+   * @param listener Receives the phases of each verification and its requests, e.g. for tracing.
+   *     Default: none
+   * @param preCheckSolutions If {@code true}, solutions are checked locally before any request is
+   *     sent. Widget placeholders, malformed solutions and, for v1, expired puzzles are rejected
+   *     with the error code the API would return, see {@link VerificationResult#getErrorCode()}.
+   *     Default: {@code false}
+   * @param localProofOfWorkCheck If {@code true}, the proof of work of v1 solutions is checked
+   *     locally before any request is sent, and solutions that were not solved honestly are
+   *     rejected with {@link ErrorCode#SOLUTION_INVALID}, see {@link LocalPowVerifier}. Implies the
+   *     checks of {@code preCheckSolutions}. Requires API version 1. Default: {@code false}
+   * @param warmUpConnections If {@code true}, {@link #warmUpAsync()} is called when the verifier is
+   *     built, so that the first verification does not pay for connecting. Default: {@code false}
+   * @param keepAliveInterval If set, {@link #warmUpAsync()} is called after every interval, so that
+   *     idle connections are not closed during quiet hours. Should be shorter than the idle timeout
+   *     of the HTTP client (system property {@code jdk.httpclient.keepalive.timeout}, whose default
+   *     depends on the JDK: 1200 seconds on Java 17, 30 seconds on Java 21) and of the server.
+   *     Default: none
    */
   @Builder
   public FriendlyCaptchaVerifier(
       @NonNull String apiKey,
       @Nullable ObjectMapper objectMapper,
       @Nullable URI verificationEndpoint,
+      @Nullable List<URI> verificationEndpoints,
+      @Nullable Duration hedgeDelay,
+      boolean latencyAwareRouting,
+      @Nullable Duration endpointEjectionDuration,
       @Nullable Duration connectTimeout,
+      HttpClient.@Nullable Version httpVersion,
       @Nullable Duration socketTimeout,
       @Nullable String sitekey,
       @Nullable String proxyHost,
@@ -89,29 +257,176 @@ public class FriendlyCaptchaVerifier {
       @Nullable String proxyPassword,
       @Nullable String userAgent,
       boolean verbose,
-      FriendlyCaptchaVersion version) {
+      FriendlyCaptchaVersion version,
+      @Nullable Executor callbackExecutor,
+      int verdictCacheSize,
+      @Nullable Duration verdictCacheTtl,
+      @Nullable VerdictStore verdictStore,
+      boolean coalesceRequests,
+      @Nullable ReplayFilterPolicy replayFilterPolicy,
+      long replayFilterMemory,
+      double replayFilterFalsePositiveRate,
+      @Nullable Duration replayFilterWindow,
+      int maxConcurrentCalls,
+      int maxQueuedCalls,
+      @Nullable Duration maxQueueTime,
+      boolean adaptiveConcurrency,
+      boolean virtualThreads,
+      double rateLimit,
+      int rateLimitBurst,
+      @Nullable RateLimitPolicy rateLimitPolicy,
+      @Nullable Duration rateLimitMaxWait,
+      @Nullable CircuitBreakerPolicy circuitBreakerPolicy,
+      int circuitBreakerWindowSize,
+      int circuitBreakerFailureRate,
+      @Nullable Duration circuitBreakerOpenDuration,
+      int maxAttempts,
+      @Nullable Duration retryBackoff,
+      @Nullable Duration retryDeadline,
+      @Nullable VerifierMetrics metrics,
+      @Nullable VerificationListener listener,
+      boolean preCheckSolutions,
+      boolean localProofOfWorkCheck,
+      boolean warmUpConnections,
+      @Nullable Duration keepAliveInterval) {
     StringUtil.assertNotEmpty(apiKey, "API key must not be null or empty");
-    this.socketTimeout = socketTimeout;
-    this.userAgent = userAgent == null ? "FriendlyCaptchaJavaClient" : userAgent;
     this.verbose = verbose;
-    VerificationResponseReader verificationResponseReader =
+    this.preCheckSolutions = preCheckSolutions;
+    this.localProofOfWorkCheck = localProofOfWorkCheck;
+    this.version = version == null ? FriendlyCaptchaVersion.V1 : version;
+    boolean verifiesLocally =
+        localProofOfWorkCheck || circuitBreakerPolicy == CircuitBreakerPolicy.VERIFY_LOCALLY;
+    if (verifiesLocally && this.version != FriendlyCaptchaVersion.V1) {
+      throw new IllegalArgumentException("Local proof of work checks require API version 1");
+    }
+    this.localPowVerifier = verifiesLocally ? new LocalPowVerifier() : null;
+    this.metrics = metrics;
+    this.listener = listener;
+    Executor virtualThreadExecutor =
+        virtualThreads ? VirtualThreads.newVirtualThreadPerTaskExecutor() : null;
+    this.callbackExecutor = callbackExecutor == null ? virtualThreadExecutor : callbackExecutor;
+    if (verdictStore != null) {
+      this.verdictStore = verdictStore;
+    } else {
+      this.verdictStore =
+          verdictCacheSize > 0
+              ? new VerdictCache(
+                  verdictCacheSize,
+                  verdictCacheTtl == null ? DEFAULT_VERDICT_CACHE_TTL : verdictCacheTtl)
+              : null;
+    }
+    this.inFlightVerifications = coalesceRequests ? new InFlightVerifications() : null;
+    this.replayFilterPolicy = replayFilterPolicy;
+    this.replayFilter =
+        replayFilterPolicy == null
+            ? null
+            : new ReplayFilter(
+                replayFilterMemory > 0 ? replayFilterMemory : DEFAULT_REPLAY_FILTER_MEMORY,
+                replayFilterFalsePositiveRate > 0
+                    ? replayFilterFalsePositiveRate
+                    : DEFAULT_REPLAY_FILTER_FALSE_POSITIVE_RATE,
+                replayFilterWindow == null ? DEFAULT_REPLAY_FILTER_WINDOW : replayFilterWindow);
+    if (adaptiveConcurrency) {
+      this.bulkhead =
+          new Bulkhead(
+              new AimdConcurrencyLimit(
+                  AimdConcurrencyLimit.DEFAULT_INITIAL_LIMIT,
+                  maxConcurrentCalls > 0
+                      ? maxConcurrentCalls
+                      : AimdConcurrencyLimit.DEFAULT_MAX_LIMIT),
+              maxQueuedCalls,
+              maxQueueTime);
+    } else {
+      this.bulkhead =
+          maxConcurrentCalls > 0
+              ? new Bulkhead(maxConcurrentCalls, maxQueuedCalls, maxQueueTime)
+              : null;
+    }
+    if (rateLimit < 0) {
+      throw new IllegalArgumentException("Rate limit must not be negative");
+    }
+    this.rateLimitPolicy = rateLimitPolicy == null ? RateLimitPolicy.WAIT : rateLimitPolicy;
+    if (rateLimit > 0) {
+      Duration maxWait = Duration.ZERO;
+      if (this.rateLimitPolicy == RateLimitPolicy.WAIT) {
+        maxWait = rateLimitMaxWait == null ? DEFAULT_RATE_LIMIT_MAX_WAIT : rateLimitMaxWait;
+      }
+      this.rateLimiter =
+          new RateLimiter(
+              rateLimit,
+              rateLimitBurst > 0 ? rateLimitBurst : (int) Math.max(1, Math.ceil(rateLimit)),
+              maxWait);
+    } else {
+      this.rateLimiter = null;
+    }
+    this.circuitBreaker =
+        circuitBreakerPolicy == null
+            ? null
+            : new CircuitBreaker(
+                circuitBreakerPolicy,
+                circuitBreakerWindowSize > 0
+                    ? circuitBreakerWindowSize
+                    : DEFAULT_CIRCUIT_BREAKER_WINDOW_SIZE,
+                circuitBreakerFailureRate > 0
+                    ? circuitBreakerFailureRate
+                    : DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE,
+                circuitBreakerOpenDuration == null
+                    ? DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION
+                    : circuitBreakerOpenDuration);
+    this.retry =
+        maxAttempts > 1
+            ? new Retry(
+                maxAttempts,
+                retryBackoff == null ? DEFAULT_RETRY_BACKOFF : retryBackoff,
+                retryDeadline != null || socketTimeout == null
+                    ? retryDeadline
+                    : socketTimeout.multipliedBy(maxAttempts))
+            : null;
+    this.verificationResponseReader =
         new VerificationResponseReader(objectMapper == null ? new ObjectMapper() : objectMapper);
     FriendlyCaptchaParams friendlyCaptchaParams = new FriendlyCaptchaParams(apiKey, sitekey);
-    if (version == FriendlyCaptchaVersion.V2) {
-      this.friendlyCaptchaClient =
-          new FriendlyCaptchaV2Client(friendlyCaptchaParams, verificationResponseReader);
+    if (this.version == FriendlyCaptchaVersion.V2) {
+      this.friendlyCaptchaClient = new FriendlyCaptchaV2Client(friendlyCaptchaParams);
     } else {
-      this.friendlyCaptchaClient =
-          new FriendlyCaptchaV1Client(friendlyCaptchaParams, verificationResponseReader);
+      this.friendlyCaptchaClient = new FriendlyCaptchaV1Client(friendlyCaptchaParams);
     }
-    this.effectiveEndpoint =
-        verificationEndpoint == null
-            ? friendlyCaptchaClient.getDefaultEndpoint()
-            : requireHttpVerificationEndpointScheme(verificationEndpoint);
+    if (verificationEndpoints != null && !verificationEndpoints.isEmpty()) {
+      this.endpoints =
+          verificationEndpoints.stream()
+              .map(FriendlyCaptchaVerifier::requireHttpVerificationEndpointScheme)
+              .toList();
+    } else {
+      this.endpoints =
+          List.of(
+              verificationEndpoint == null
+                  ? friendlyCaptchaClient.getDefaultEndpoint()
+                  : requireHttpVerificationEndpointScheme(verificationEndpoint));
+    }
+    this.hedgedRequests =
+        endpoints.size() > 1
+            ? new HedgedRequests(hedgeDelay == null ? -1 : hedgeDelay.toNanos())
+            : null;
+    this.endpointRouter =
+        latencyAwareRouting && endpoints.size() > 1
+            ? new EndpointRouter(
+                endpoints,
+                endpointEjectionDuration == null
+                    ? DEFAULT_ENDPOINT_EJECTION_DURATION
+                    : endpointEjectionDuration)
+            : null;
+    this.requestTemplate =
+        buildRequestTemplate(
+            socketTimeout, userAgent == null ? "FriendlyCaptchaJavaClient" : userAgent);
     HttpClient.Builder builder = HttpClient.newBuilder();
+    if (virtualThreadExecutor != null) {
+      builder.executor(virtualThreadExecutor);
+    }
     if (connectTimeout != null) {
       builder.connectTimeout(connectTimeout);
     }
+    if (httpVersion != null) {
+      builder.version(httpVersion);
+    }
     if (!isEmpty(proxyHost) && proxyPort > 0) {
       builder.proxy(ProxySelector.of(new InetSocketAddress(proxyHost, proxyPort)));
       if (!isEmpty(proxyUserName) && !isEmpty(proxyPassword)) {
@@ -119,11 +434,21 @@ public class FriendlyCaptchaVerifier {
       }
     }
     this.httpClient = builder.build();
+    if (warmUpConnections) {
+      warmUpAsync();
+    }
+    if (keepAliveInterval != null) {
+      new KeepAlive(this, keepAliveInterval).start();
+    }
   }
 
   /**
    * Verifies the given captcha solution against the Friendly Captcha API.
    *
+   * <p>The calling thread parks until the response has been decoded and holds no monitor while
+   * waiting, so this method can be called from any number of virtual threads without pinning their
+   * carrier threads.
+   *
    * @param solution the captcha response value submitted by the user
    * @return {@code true} if the solution is valid, {@code false} if it was rejected by the API
    * @throws IllegalArgumentException if solution or API key is null or empty
@@ -132,29 +457,15 @@ public class FriendlyCaptchaVerifier {
    */
   public boolean verify(@NonNull String solution) {
     StringUtil.assertNotEmpty(solution, "Solution must not be null or empty");
-    if (verbose) {
-      log.info("Verifying friendly captcha solution using endpoint {}", effectiveEndpoint);
-    }
-    try {
-      HttpResponse<InputStream> response =
-          httpClient.send(buildHttpRequest(solution), HttpResponse.BodyHandlers.ofInputStream());
-      if (verbose) {
-        log.info("Received response {} with status code {}", response, response.statusCode());
-      }
-      return friendlyCaptchaClient.processResponse(response.statusCode(), response.body());
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      throw new FriendlyCaptchaException("Interrupted while checking solution", e);
-    } catch (IOException e) {
-      throw new FriendlyCaptchaException("Could not check solution", e);
-    }
+    return await(verifyInternal(solution));
   }
 
   /**
    * Verifies the given captcha solution against the Friendly Captcha API asynchronously.
    *
-   * <p>The returned future completes with {@code true} if the solution is valid, or {@code false}
-   * if it was rejected. It completes exceptionally with a {@link
+   * <p>The response body is decoded while it arrives, so no thread is blocked waiting for it. The
+   * returned future completes with {@code true} if the solution is valid, or {@code false} if it
+   * was rejected. It completes exceptionally with a {@link
    * java.util.concurrent.CompletionException} whose cause is always a {@link
    * FriendlyCaptchaException} — network failures are wrapped in one, consistent with {@link
    * #verify(String)}.
@@ -166,37 +477,582 @@ public class FriendlyCaptchaVerifier {
    */
   public CompletableFuture<Boolean> verifyAsync(@NonNull String solution) {
     StringUtil.assertNotEmpty(solution, "Solution must not be null or empty");
+    return completeOnCallbackExecutor(verifyInternal(solution));
+  }
+
+  /**
+   * Verifies the given captcha solution and returns a detailed result instead of throwing.
+   *
+   * <p>Rejections, API error responses and network failures are all reported in the result, with
+   * the error code, status code and endpoint of the response and the duration of the verification.
+   * This avoids catching exceptions on a hot path, e.g. while bots flood a form with invalid
+   * solutions. A null or empty solution is rejected without calling the API.
+   *
+   * @param solution the captcha response value submitted by the user
+   * @return the result, never {@code null}
+   */
+  public VerificationResult verifyDetailed(@Nullable String solution) {
+    long start = System.nanoTime();
+    CompletableFuture<VerificationResult> future = startDetailed(solution);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      return VerificationResult.failed(
+          new FriendlyCaptchaException("Interrupted while checking solution", e),
+          System.nanoTime() - start);
+    } catch (ExecutionException e) {
+      return VerificationResult.failed(
+          new FriendlyCaptchaException("Could not check solution", e.getCause()),
+          System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Asynchronous variant of {@link #verifyDetailed(String)}. The returned future never completes
+   * exceptionally because of a failed verification.
+   *
+   * @param solution the captcha response value submitted by the user
+   * @return a future that resolves to the result
+   */
+  public CompletableFuture<VerificationResult> verifyDetailedAsync(@Nullable String solution) {
+    return completeOnCallbackExecutor(startDetailed(solution));
+  }
+
+  /**
+   * Verifies a batch of solutions with at most {@value #DEFAULT_BATCH_PARALLELISM} verifications in
+   * flight, see {@link #verifyAll(Collection, int)}.
+   *
+   * @param solutions the captcha response values to verify
+   * @return one outcome per solution, in iteration order of the collection
+   */
+  public List<VerificationOutcome> verifyAll(@NonNull Collection<String> solutions) {
+    return verifyAll(solutions, DEFAULT_BATCH_PARALLELISM);
+  }
+
+  /**
+   * Verifies a batch of solutions, e.g. when reprocessing queued submissions.
+   *
+   * <p>All verifications share the HTTP client of this verifier, so with HTTP/2 they are
+   * multiplexed over few connections. A failing verification does not abort the batch: its outcome
+   * carries the {@link FriendlyCaptchaException} that {@link #verify(String)} would have thrown.
+   * Null or empty solutions are reported as rejected without calling the API.
+   *
+   * @param solutions the captcha response values to verify
+   * @param maxParallelism the maximum number of verifications in flight at the same time
+   * @return one outcome per solution, in iteration order of the collection
+   * @throws IllegalArgumentException if {@code maxParallelism} is less than one
+   * @throws FriendlyCaptchaException if the calling thread is interrupted while waiting
+   */
+  public List<VerificationOutcome> verifyAll(
+      @NonNull Collection<String> solutions, int maxParallelism) {
+    return await(startBatch(solutions, maxParallelism));
+  }
+
+  /**
+   * Asynchronous variant of {@link #verifyAll(Collection, int)}. The returned future never
+   * completes exceptionally because of a failed verification.
+   *
+   * @param solutions the captcha response values to verify
+   * @param maxParallelism the maximum number of verifications in flight at the same time
+   * @return a future that resolves to one outcome per solution, in iteration order of the
+   *     collection
+   * @throws IllegalArgumentException if {@code maxParallelism} is less than one
+   */
+  public CompletableFuture<List<VerificationOutcome>> verifyAllAsync(
+      @NonNull Collection<String> solutions, int maxParallelism) {
+    return completeOnCallbackExecutor(startBatch(solutions, maxParallelism));
+  }
+
+  /**
+   * Opens connections to all verification endpoints and loads the response decoder, so that the
+   * first verification does not pay for DNS lookup, TCP and TLS handshakes and class loading.
+   *
+   * <p>A {@code HEAD} request is sent to each endpoint. It is not a verification, so it neither
+   * counts against the API quota nor is it reported to metrics or listeners. Its response is
+   * ignored. Returns when all endpoints have answered or failed.
+   *
+   * @throws FriendlyCaptchaException if the calling thread is interrupted while waiting
+   */
+  public void warmUp() {
+    await(warmUpAsync());
+  }
+
+  /**
+   * Asynchronous variant of {@link #warmUp()}. The returned future never completes exceptionally
+   * because an endpoint could not be reached.
+   *
+   * @return a future that completes when all endpoints have answered or failed
+   */
+  public CompletableFuture<Void> warmUpAsync() {
+    verificationResponseReader.warmUp();
+    return CompletableFuture.allOf(
+        endpoints.stream().map(this::ping).toArray(CompletableFuture<?>[]::new));
+  }
+
+  /**
+   * Returns a snapshot of the verdict cache statistics, or {@code null} if no verdict cache is
+   * configured (see {@link FriendlyCaptchaVerifierBuilder#verdictCacheSize(int)}) or the {@link
+   * VerdictStore} keeps no statistics.
+   */
+  @Nullable
+  public VerdictCacheStats getVerdictCacheStats() {
+    return verdictStore == null ? null : verdictStore.getStats();
+  }
+
+  /**
+   * Returns a snapshot of the in-flight count, queue depth and current limit of the bulkhead, or
+   * {@code null} if the number of concurrent calls is not limited (see {@link
+   * FriendlyCaptchaVerifierBuilder#maxConcurrentCalls(int)} and {@link
+   * FriendlyCaptchaVerifierBuilder#adaptiveConcurrency(boolean)}).
+   */
+  @Nullable
+  public BulkheadStats getBulkheadStats() {
+    return bulkhead == null ? null : bulkhead.stats();
+  }
+
+  /**
+   * Returns a snapshot of the current rate and the delayed, rejected and throttled requests of the
+   * rate limiter, or {@code null} if the request rate is not limited (see {@link
+   * FriendlyCaptchaVerifierBuilder#rateLimit(double)}).
+   */
+  @Nullable
+  public RateLimiterStats getRateLimiterStats() {
+    return rateLimiter == null ? null : rateLimiter.stats();
+  }
+
+  /**
+   * Returns a snapshot of the replay filter statistics, or {@code null} if no replay filter is
+   * configured (see {@link FriendlyCaptchaVerifierBuilder#replayFilterPolicy(ReplayFilterPolicy)}).
+   */
+  @Nullable
+  public ReplayFilterStats getReplayFilterStats() {
+    return replayFilter == null ? null : replayFilter.stats();
+  }
+
+  /**
+   * Returns a snapshot of the state and sliding window of the circuit breaker, or {@code null} if
+   * no circuit breaker is configured (see {@link
+   * FriendlyCaptchaVerifierBuilder#circuitBreakerPolicy(CircuitBreakerPolicy)}).
+   */
+  @Nullable
+  public CircuitBreakerStats getCircuitBreakerStats() {
+    return circuitBreaker == null ? null : circuitBreaker.stats();
+  }
+
+  /**
+   * Returns a snapshot of the health scores of the verification endpoints, or {@code null} if
+   * latency-aware routing is not enabled (see {@link
+   * FriendlyCaptchaVerifierBuilder#latencyAwareRouting(boolean)}).
+   */
+  @Nullable
+  public List<EndpointStats> getEndpointStats() {
+    return endpointRouter == null ? null : endpointRouter.stats();
+  }
+
+  private CompletableFuture<VerificationResult> startDetailed(@Nullable String solution) {
+    long start = System.nanoTime();
+    if (isEmpty(solution)) {
+      return CompletableFuture.completedFuture(
+          VerificationResult.rejected(System.nanoTime() - start));
+    }
+    VerificationContext context = newContext();
+    CompletableFuture<Boolean> future = verifyInternal(context, solution);
+    return propagateCancellation(
+        future.handle(
+            (valid, ex) -> VerificationResult.of(context, valid, ex, System.nanoTime() - start)),
+        future);
+  }
+
+  private CompletableFuture<List<VerificationOutcome>> startBatch(
+      Collection<String> solutions, int maxParallelism) {
+    if (maxParallelism < 1) {
+      throw new IllegalArgumentException("Maximum parallelism must be at least one");
+    }
+    return new BatchVerification(solutions, this::verifyInternal).start(maxParallelism);
+  }
+
+  /**
+   * The verification pipeline shared by {@link #verify(String)} and {@link #verifyAsync(String)}.
+   * The synchronous variant simply waits for the returned future, just like {@link HttpClient#send}
+   * waits for {@link HttpClient#sendAsync} internally.
+   */
+  private CompletableFuture<Boolean> verifyInternal(String solution) {
+    return verifyInternal(listener == null ? null : newContext(), solution);
+  }
+
+  private CompletableFuture<Boolean> verifyInternal(
+      @Nullable VerificationContext context, String solution) {
+    if (listener != null) {
+      return notifyListener(context, solution);
+    }
+    return measure(context, solution);
+  }
+
+  private VerificationContext newContext() {
+    return new VerificationContext(verificationIds.incrementAndGet());
+  }
+
+  private CompletableFuture<Boolean> notifyListener(VerificationContext context, String solution) {
+    long verificationId = context.getId();
+    listener.verificationStarted(verificationId, System.nanoTime());
+    CompletableFuture<Boolean> future = measure(context, solution);
+    // the caller sees the verdict only after the listener, so the phases are reported in order
+    CompletableFuture<Boolean> notified =
+        future.whenComplete(
+            (valid, ex) -> {
+              if (ex == null) {
+                listener.verificationCompleted(verificationId, valid, System.nanoTime());
+              } else {
+                listener.verificationFailed(
+                    verificationId,
+                    ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex,
+                    System.nanoTime());
+              }
+            });
+    return propagateCancellation(notified, future);
+  }
+
+  private CompletableFuture<Boolean> measure(
+      @Nullable VerificationContext context, String solution) {
+    if (metrics == null) {
+      // no timing stage is added to the future
+      return lookUpOrSend(context, solution);
+    }
+    long start = System.nanoTime();
+    metrics.verificationStarted();
+    CompletableFuture<Boolean> future = lookUpOrSend(context, solution);
+    future.whenComplete(
+        (valid, ex) -> {
+          long duration = System.nanoTime() - start;
+          if (ex == null) {
+            metrics.verificationCompleted(valid, duration);
+          } else {
+            metrics.verificationFailed(
+                ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex,
+                duration);
+          }
+        });
+    return future;
+  }
+
+  private CompletableFuture<Boolean> lookUpOrSend(
+      @Nullable VerificationContext context, String solution) {
+    if (preCheckSolutions || localProofOfWorkCheck) {
+      long now = System.currentTimeMillis() / 1000;
+      ErrorCode errorCode =
+          localProofOfWorkCheck
+              ? localPowVerifier.check(solution, now)
+              : friendlyCaptchaClient.preCheck(solution, now);
+      if (errorCode != null) {
+        return rejectLocally(context, errorCode);
+      }
+    }
+    SolutionHash hash =
+        verdictStore == null && inFlightVerifications == null && replayFilter == null
+            ? null
+            : SolutionHash.of(solution);
+    if (verdictStore != null) {
+      Boolean cached = verdictStore.get(hash.getHigh(), hash.getLow());
+      if (cached != null) {
+        logCachedVerdict(cached);
+        return CompletableFuture.completedFuture(cached);
+      }
+    }
+    if (inFlightVerifications != null) {
+      return inFlightVerifications.join(hash, () -> filterAndSend(context, hash, solution));
+    }
+    return filterAndSend(context, hash, solution);
+  }
+
+  private CompletableFuture<Boolean> filterAndSend(
+      @Nullable VerificationContext context, @Nullable SolutionHash hash, String solution) {
+    // after coalescing, so that concurrent verifications of the same solution are not replays
+    if (replayFilter != null && replayFilter.mightContain(hash)) {
+      if (replayFilterPolicy == ReplayFilterPolicy.REJECT) {
+        return rejectLocally(context, friendlyCaptchaClient.getDuplicateErrorCode());
+      }
+      if (verbose) {
+        log.info("Friendly captcha solution was probably verified before");
+      }
+    }
+    return sendAndRemember(context, hash, solution);
+  }
+
+  private CompletableFuture<Boolean> rejectLocally(
+      @Nullable VerificationContext context, ErrorCode errorCode) {
     if (verbose) {
-      log.info("Verifying friendly captcha solution using endpoint {}", effectiveEndpoint);
+      log.info("Rejected friendly captcha solution locally: {}", errorCode);
+    }
+    if (metrics != null) {
+      metrics.solutionRejectedLocally(errorCode);
     }
+    if (context != null) {
+      context.rejectedLocally(errorCode);
+    }
+    return CompletableFuture.completedFuture(Boolean.FALSE);
+  }
+
+  private CompletableFuture<Boolean> sendAndRemember(
+      @Nullable VerificationContext context, @Nullable SolutionHash hash, String solution) {
+    // the circuit breaker answers before the verdict is cached, so policy verdicts are not cached
+    CompletableFuture<Boolean> future =
+        circuitBreaker == null
+            ? sendLimitedAndRemember(context, hash, solution)
+            : circuitBreaker.execute(
+                () -> sendLimitedAndRemember(context, hash, solution),
+                localPowVerifier == null ? null : () -> localPowVerifier.verify(solution));
+    if (rateLimiter != null
+        && (rateLimitPolicy == RateLimitPolicy.ACCEPT
+            || rateLimitPolicy == RateLimitPolicy.REJECT)) {
+      return propagateCancellation(future.exceptionallyCompose(this::answerRateLimited), future);
+    }
+    return future;
+  }
+
+  private CompletableFuture<Boolean> answerRateLimited(Throwable ex) {
+    Throwable cause =
+        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    if (!(cause instanceof RateLimitedException)) {
+      return CompletableFuture.failedFuture(ex);
+    }
+    if (verbose) {
+      log.info("Answered friendly captcha verification by rate limit policy {}", rateLimitPolicy);
+    }
+    return CompletableFuture.completedFuture(rateLimitPolicy == RateLimitPolicy.ACCEPT);
+  }
+
+  private CompletableFuture<Boolean> sendLimitedAndRemember(
+      @Nullable VerificationContext context, @Nullable SolutionHash hash, String solution) {
+    CompletableFuture<Boolean> future =
+        retry == null
+            ? sendToEndpoints(context, solution)
+            : retry.execute(() -> sendToEndpoints(context, solution));
+    if (verdictStore == null && replayFilter == null) {
+      return future;
+    }
+    // only verdicts of the API are remembered, so a failed verification can be repeated
+    return propagateCancellation(
+        future.thenApply(
+            valid -> {
+              if (verdictStore != null) {
+                verdictStore.put(hash.getHigh(), hash.getLow(), valid);
+              }
+              if (replayFilter != null) {
+                replayFilter.add(hash);
+              }
+              return valid;
+            }),
+        future);
+  }
+
+  private CompletableFuture<Boolean> sendToEndpoints(
+      @Nullable VerificationContext context, String solution) {
+    if (hedgedRequests == null) {
+      return sendLimited(context, endpoints.get(0), solution);
+    }
+    if (endpointRouter == null) {
+      return hedgedRequests.execute(
+          endpoints, endpoint -> sendLimited(context, endpoint, solution));
+    }
+    return hedgedRequests.execute(
+        endpointRouter.rank(), endpoint -> sendRouted(context, endpoint, solution));
+  }
+
+  private CompletableFuture<Boolean> sendRouted(
+      @Nullable VerificationContext context, URI endpoint, String solution) {
+    long start = System.nanoTime();
+    CompletableFuture<Boolean> future = sendLimited(context, endpoint, solution);
+    future.whenComplete(
+        (valid, ex) -> endpointRouter.record(endpoint, System.nanoTime() - start, ex));
+    return future;
+  }
+
+  private CompletableFuture<Boolean> sendLimited(
+      @Nullable VerificationContext context, URI endpoint, String solution) {
+    // the rate limit slot is reserved first, so waiting for it does not hold a bulkhead slot
+    return rateLimiter == null
+        ? sendBulkheaded(context, endpoint, solution)
+        : rateLimiter.execute(() -> sendBulkheaded(context, endpoint, solution));
+  }
+
+  private CompletableFuture<Boolean> sendBulkheaded(
+      @Nullable VerificationContext context, URI endpoint, String solution) {
+    return bulkhead == null
+        ? sendAsync(context, endpoint, solution)
+        : bulkhead.execute(() -> sendAsync(context, endpoint, solution));
+  }
+
+  private CompletableFuture<Boolean> sendAsync(
+      @Nullable VerificationContext context, URI endpoint, String solution) {
+    if (verbose) {
+      log.info("Verifying friendly captcha solution using endpoint {}", endpoint);
+    }
+    VerificationEvent event = VerificationEvent.start(endpoint, version);
+    HttpRequest request = buildHttpRequest(context, endpoint, solution);
+    HttpResponse.BodyHandler<VerificationResponse> bodyHandler =
+        verificationResponseReader.bodyHandler();
+    if (event != null) {
+      event.requestBuilt();
+    }
+    if (listener != null) {
+      listener.requestBuilt(context.getId(), endpoint, System.nanoTime());
+    }
+    if (event != null || listener != null) {
+      HttpResponse.BodyHandler<VerificationResponse> decoding = bodyHandler;
+      bodyHandler =
+          responseInfo -> {
+            if (event != null) {
+              event.headersReceived();
+            }
+            if (listener != null) {
+              listener.responseHeadersReceived(
+                  context.getId(), endpoint, responseInfo.statusCode(), System.nanoTime());
+            }
+            return decoding.apply(responseInfo);
+          };
+    }
+    CompletableFuture<HttpResponse<VerificationResponse>> exchange =
+        httpClient.sendAsync(request, bodyHandler);
+    CompletableFuture<Boolean> result =
+        exchange
+            .thenApply(
+                response -> {
+                  if (listener != null) {
+                    listener.responseParsed(context.getId(), endpoint, System.nanoTime());
+                  }
+                  if (verbose) {
+                    log.info(
+                        "Received response {} with status code {}",
+                        response,
+                        response.statusCode());
+                  }
+                  if (metrics != null) {
+                    metrics.responseReceived(response.statusCode(), response.body().getErrorCode());
+                  }
+                  if (event != null) {
+                    event.responseReceived(response.statusCode(), response.body().getErrorCode());
+                  }
+                  if (context != null) {
+                    context.responseReceived(
+                        endpoint, response.statusCode(), response.body().getErrorCode());
+                  }
+                  try {
+                    return friendlyCaptchaClient.processResponse(
+                        response.statusCode(), response.body());
+                  } catch (FriendlyCaptchaException e) {
+                    Duration retryAfter =
+                        Retry.parseRetryAfter(
+                            response.headers().firstValue("Retry-After").orElse(null),
+                            Clock.systemUTC());
+                    throw retryAfter == null ? e : e.withRetryAfter(retryAfter);
+                  }
+                })
+            .exceptionallyCompose(
+                ex -> {
+                  Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                  if (metrics != null) {
+                    recordFailure(cause);
+                  }
+                  if (cause instanceof HttpTimeoutException) {
+                    VerificationFailureEvent.emit(
+                        VerificationFailureEvent.TIMEOUT, endpoint, cause.getMessage());
+                  }
+                  if (cause instanceof FriendlyCaptchaException fce) {
+                    return CompletableFuture.failedFuture(fce);
+                  }
+                  return CompletableFuture.failedFuture(
+                      new FriendlyCaptchaException("Could not check solution", cause));
+                });
+    // aborts the exchange when a hedged request lost or the caller gave up
+    result.whenComplete(
+        (valid, ex) -> {
+          if (event != null) {
+            event.finish(valid);
+          }
+          if (result.isCancelled()) {
+            exchange.cancel(true);
+          }
+        });
+    return result;
+  }
+
+  private CompletableFuture<Void> ping(URI endpoint) {
+    HttpRequest request =
+        requestTemplate
+            .copy()
+            .uri(endpoint)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build();
     return httpClient
-        .sendAsync(buildHttpRequest(solution), HttpResponse.BodyHandlers.ofInputStream())
-        .thenApply(
-            response -> {
-              if (verbose) {
+        .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .handle(
+            (response, ex) -> {
+              if (ex != null) {
+                log.debug("Could not warm up connection to endpoint {}", endpoint, ex);
+              } else if (verbose) {
                 log.info(
-                    "Received response {} with status code {}", response, response.statusCode());
-              }
-              return friendlyCaptchaClient.processResponse(response.statusCode(), response.body());
-            })
-        .exceptionallyCompose(
-            ex -> {
-              Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
-              if (cause instanceof FriendlyCaptchaException fce) {
-                return CompletableFuture.failedFuture(fce);
+                    "Warmed up connection to endpoint {} using {}", endpoint, response.version());
               }
-              return CompletableFuture.failedFuture(
-                  new FriendlyCaptchaException("Could not check solution", cause));
+              return null;
             });
   }
 
-  private HttpRequest buildHttpRequest(String solution) {
+  private void recordFailure(Throwable cause) {
+    if (cause instanceof HttpTimeoutException) {
+      metrics.requestTimedOut();
+    } else if (cause instanceof FriendlyCaptchaException fce && fce.getStatusCode() == null) {
+      // errors of processResponse carry a status code, so this is a body that could not be read
+      metrics.responseUnreadable();
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new FriendlyCaptchaException("Interrupted while checking solution", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new FriendlyCaptchaException("Could not check solution", e.getCause());
+    }
+  }
+
+  /** Cancels the source when the derived future is cancelled, e.g. by an interrupted caller. */
+  static <T> CompletableFuture<T> propagateCancellation(
+      CompletableFuture<T> derived, CompletableFuture<?> source) {
+    derived.whenComplete(
+        (value, ex) -> {
+          if (derived.isCancelled()) {
+            source.cancel(true);
+          }
+        });
+    return derived;
+  }
+
+  private <T> CompletableFuture<T> completeOnCallbackExecutor(CompletableFuture<T> future) {
+    if (callbackExecutor == null) {
+      return future;
+    }
+    return propagateCancellation(
+        future.whenCompleteAsync((valid, ex) -> {}, callbackExecutor), future);
+  }
+
+  private void logCachedVerdict(boolean valid) {
+    if (verbose) {
+      log.info("Returning cached verdict {} for previously verified solution", valid);
+    }
+  }
+
+  private HttpRequest.Builder buildRequestTemplate(
+      @Nullable Duration socketTimeout, String userAgent) {
     HttpRequest.Builder builder =
         HttpRequest.newBuilder()
-            .uri(effectiveEndpoint)
-            .POST(
-                HttpRequest.BodyPublishers.ofString(
-                    friendlyCaptchaClient.buildRequestBody(solution)))
             .header("Content-Type", "application/x-www-form-urlencoded")
             .header("Accept", "application/json")
             .header("User-Agent", userAgent);
@@ -204,7 +1060,19 @@ public class FriendlyCaptchaVerifier {
       builder.timeout(socketTimeout);
     }
     friendlyCaptchaClient.addVersionSpecificHeaders(builder);
-    return builder.build();
+    return builder;
+  }
+
+  private HttpRequest buildHttpRequest(
+      @Nullable VerificationContext context, URI endpoint, String solution) {
+    HttpRequest.BodyPublisher body =
+        HttpRequest.BodyPublishers.ofByteArray(friendlyCaptchaClient.buildRequestBody(solution));
+    if (listener != null) {
+      body =
+          new NotifyingBodyPublisher(
+              body, () -> listener.requestSent(context.getId(), endpoint, System.nanoTime()));
+    }
+    return requestTemplate.copy().uri(endpoint).POST(body).build();
   }
 
   private static URI requireHttpVerificationEndpointScheme(@NonNull URI endpoint) {
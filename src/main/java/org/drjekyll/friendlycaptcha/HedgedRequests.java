@@ -0,0 +1,131 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Sends a request to the first endpoint, and a hedged request to the next endpoint whenever the
+ * previous ones have not answered within the hedge delay. The first definitive answer wins and the
+ * other requests are cancelled.
+ *
+ * <p>An answer is definitive if it is a verdict or an error response with an {@link ErrorCode}.
+ * Other failures, e.g. network errors or 503 responses, trigger the next hedged request right away
+ * instead of waiting for the delay. The verification only fails if all endpoints failed.
+ *
+ * <p>The hedge delay is either fixed or the 95th percentile of the round-trip times of recent
+ * definitive answers, so that only the slowest 5% of the requests are hedged.
+ */
+class HedgedRequests {
+
+  private static final long DEFAULT_HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+  private final LatencyTracker latencyTracker = new LatencyTracker(0.95, DEFAULT_HEDGE_DELAY_NANOS);
+
+  private final LongSupplier hedgeDelayNanos;
+
+  /**
+   * @param fixedHedgeDelayNanos the hedge delay, or a negative value to use the 95th percentile of
+   *     recent round-trip times
+   */
+  HedgedRequests(long fixedHedgeDelayNanos) {
+    this.hedgeDelayNanos =
+        fixedHedgeDelayNanos < 0 ? latencyTracker::getPercentileNanos : () -> fixedHedgeDelayNanos;
+  }
+
+  <E, T> CompletableFuture<T> execute(List<E> endpoints, Function<E, CompletableFuture<T>> call) {
+    return new Exchange<>(endpoints, call).start();
+  }
+
+  long getHedgeDelayNanos() {
+    return hedgeDelayNanos.getAsLong();
+  }
+
+  private static boolean isDefinitive(Throwable cause) {
+    return cause instanceof FriendlyCaptchaException
+        && ((FriendlyCaptchaException) cause).getErrorCode() != null;
+  }
+
+  private final class Exchange<E, T> {
+
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private final AtomicInteger launched = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final List<E> endpoints;
+
+    private final Function<E, CompletableFuture<T>> call;
+
+    private final AtomicReferenceArray<CompletableFuture<T>> requests;
+
+    Exchange(List<E> endpoints, Function<E, CompletableFuture<T>> call) {
+      this.endpoints = endpoints;
+      this.call = call;
+      this.requests = new AtomicReferenceArray<>(endpoints.size());
+    }
+
+    CompletableFuture<T> start() {
+      // also cancels the requests if the caller cancels the result
+      result.whenComplete((value, ex) -> cancelAll());
+      launchNext();
+      return result;
+    }
+
+    private void launchNext() {
+      if (result.isDone()) {
+        return;
+      }
+      int index = launched.getAndIncrement();
+      if (index >= endpoints.size()) {
+        return;
+      }
+      if (index + 1 < endpoints.size()) {
+        CompletableFuture.delayedExecutor(getHedgeDelayNanos(), TimeUnit.NANOSECONDS)
+            .execute(this::launchNext);
+      }
+      long start = System.nanoTime();
+      CompletableFuture<T> request;
+      try {
+        request = call.apply(endpoints.get(index));
+      } catch (RuntimeException e) {
+        request = CompletableFuture.failedFuture(e);
+      }
+      requests.set(index, request);
+      request.whenComplete((value, ex) -> complete(value, ex, System.nanoTime() - start));
+    }
+
+    private void complete(@Nullable T value, @Nullable Throwable ex, long rttNanos) {
+      Throwable cause =
+          ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+      if (cause == null || isDefinitive(cause)) {
+        latencyTracker.record(rttNanos);
+        if (cause == null) {
+          result.complete(value);
+        } else {
+          result.completeExceptionally(cause);
+        }
+      } else if (failed.incrementAndGet() == endpoints.size()) {
+        result.completeExceptionally(cause);
+      } else {
+        launchNext();
+      }
+    }
+
+    private void cancelAll() {
+      for (int i = 0; i < requests.length(); i++) {
+        CompletableFuture<T> request = requests.get(i);
+        if (request != null && !request.isDone()) {
+          request.cancel(true);
+        }
+      }
+    }
+  }
+}
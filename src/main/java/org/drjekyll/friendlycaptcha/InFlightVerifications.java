@@ -0,0 +1,53 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent verifications of the same solution into a single API call.
+ *
+ * <p>The first caller for a solution registers a future and performs the call; callers that arrive
+ * while it is in flight attach to that future instead of sending their own request. The entry is
+ * removed before the future completes, so a later verification of the same solution starts a new
+ * call (or hits the verdict cache).
+ */
+class InFlightVerifications {
+
+  private final ConcurrentMap<SolutionHash, CompletableFuture<Boolean>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns a future for the verdict of the given solution, starting the call only if no call for
+   * the same solution is in flight. Every caller gets its own copy, so cancelling or completing it
+   * does not affect the others.
+   */
+  CompletableFuture<Boolean> join(SolutionHash hash, Supplier<CompletableFuture<Boolean>> call) {
+    CompletableFuture<Boolean> leader = new CompletableFuture<>();
+    CompletableFuture<Boolean> existing = inFlight.putIfAbsent(hash, leader);
+    if (existing != null) {
+      return existing.copy();
+    }
+    try {
+      call.get()
+          .whenComplete(
+              (valid, ex) -> {
+                inFlight.remove(hash, leader);
+                if (ex == null) {
+                  leader.complete(valid);
+                } else {
+                  leader.completeExceptionally(
+                      ex instanceof CompletionException && ex.getCause() != null
+                          ? ex.getCause()
+                          : ex);
+                }
+              });
+    } catch (RuntimeException e) {
+      inFlight.remove(hash, leader);
+      leader.completeExceptionally(e);
+    }
+    return leader.copy();
+  }
+}
@@ -0,0 +1,42 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the connections of a verifier periodically, so that they are not closed by the HTTP
+ * client or the server while no verifications are sent.
+ *
+ * <p>Only a weak reference to the verifier is kept between two pings, so the pings stop as soon as
+ * the verifier is no longer used.
+ */
+final class KeepAlive {
+
+  private final WeakReference<FriendlyCaptchaVerifier> verifier;
+
+  private final long intervalNanos;
+
+  KeepAlive(FriendlyCaptchaVerifier verifier, Duration interval) {
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Keep-alive interval must be positive");
+    }
+    this.verifier = new WeakReference<>(verifier);
+    this.intervalNanos = interval.toNanos();
+  }
+
+  /** Schedules the first ping after one interval. */
+  void start() {
+    CompletableFuture.runAsync(
+        this::ping, CompletableFuture.delayedExecutor(intervalNanos, TimeUnit.NANOSECONDS));
+  }
+
+  private void ping() {
+    FriendlyCaptchaVerifier target = verifier.get();
+    if (target == null) {
+      return;
+    }
+    target.warmUpAsync().whenComplete((ignored, ex) -> start());
+  }
+}
@@ -0,0 +1,74 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed log-linear buckets: every power of two is split into {@value
+ * #SUB_BUCKETS} linear buckets, so that every value up to {@link Long#MAX_VALUE} is recorded with a
+ * relative error of at most 12.5%. Recording increments a striped counter and never allocates once
+ * the counter has expanded to the level of contention.
+ */
+class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+  private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+  LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  void record(long value) {
+    counts[bucket(Math.max(0, value))].increment();
+  }
+
+  /**
+   * Returns the upper bound of the bucket that contains the given quantile, or zero if nothing has
+   * been recorded.
+   *
+   * @param quantile between 0 and 1, e.g. 0.99 for the 99th percentile
+   */
+  long valueAt(double quantile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts[i].sum();
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long lowerBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+  }
+}
@@ -0,0 +1,48 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a percentile of recent round-trip times from a ring buffer of samples. The percentile
+ * is recomputed every {@value #RECOMPUTE_INTERVAL} samples, so that reading it costs a volatile
+ * read only.
+ */
+class LatencyTracker {
+
+  private static final int CAPACITY = 256;
+
+  private static final int RECOMPUTE_INTERVAL = 16;
+
+  private static final int MINIMUM_SAMPLES = 20;
+
+  private final long[] samples = new long[CAPACITY];
+
+  private final double percentile;
+
+  private long count;
+
+  private volatile long percentileNanos;
+
+  /**
+   * @param percentile the percentile to estimate, between 0 and 1
+   * @param defaultNanos the estimate until {@value #MINIMUM_SAMPLES} samples have been recorded
+   */
+  LatencyTracker(double percentile, long defaultNanos) {
+    this.percentile = percentile;
+    this.percentileNanos = defaultNanos;
+  }
+
+  synchronized void record(long rttNanos) {
+    samples[(int) (count % CAPACITY)] = rttNanos;
+    count++;
+    if (count >= MINIMUM_SAMPLES && count % RECOMPUTE_INTERVAL == 0) {
+      long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, CAPACITY));
+      Arrays.sort(sorted);
+      percentileNanos = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+  }
+
+  long getPercentileNanos() {
+    return percentileNanos;
+  }
+}
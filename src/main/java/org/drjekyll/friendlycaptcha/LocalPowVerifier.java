@@ -0,0 +1,115 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.Arrays;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Checks the proof of work of v1 solutions locally, without calling the verification API.
+ *
+ * <p>For every solution of a puzzle, the widget searches a nonce such that the BLAKE2b-256 hash of
+ * the puzzle, padded to 120 bytes and followed by the eight bytes of the solution, starts with a
+ * little-endian 32-bit number below the threshold given by the difficulty in byte 15 of the puzzle.
+ * This class recomputes these hashes, decoding the puzzle and the solutions straight from the
+ * string into a reused message block, so a check does not allocate memory.
+ *
+ * <p>The signature of the puzzle can only be checked by the verification API, and so can whether a
+ * solution has been used before. A forged puzzle with a low difficulty, or a replayed solution, is
+ * therefore accepted by {@link #verify(String)}. That is good enough to reject garbage and tampered
+ * tokens before sending a request, and to answer while the API is not reachable, see {@link
+ * CircuitBreakerPolicy#VERIFY_LOCALLY}, but not to replace the API.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class LocalPowVerifier {
+
+  private static final int MAX_PUZZLE_LENGTH = 120;
+
+  private static final int PUZZLE_DIFFICULTY_OFFSET = 15;
+
+  private static final int VALID = 0;
+
+  private static final int INVALID = 1;
+
+  private static final int UNCHECKED = 2;
+
+  private static final long[] THRESHOLDS = new long[256];
+
+  static {
+    for (int difficulty = 0; difficulty < THRESHOLDS.length; difficulty++) {
+      THRESHOLDS[difficulty] = (long) Math.pow(2, (255.999 - difficulty) / 8.0);
+    }
+  }
+
+  private final ThreadLocal<Blake2b256> hashes = ThreadLocal.withInitial(Blake2b256::new);
+
+  /**
+   * Checks the format, the expiry and the proof of work of a v1 solution.
+   *
+   * @param solution the solution as submitted by the widget
+   * @return {@code true} if the solution is well-formed, its puzzle has not expired, and every
+   *     solution of the puzzle meets its difficulty
+   */
+  public boolean verify(@Nullable String solution) {
+    return solution != null
+        && !solution.isEmpty()
+        && verify(solution, System.currentTimeMillis() / 1000);
+  }
+
+  boolean verify(String solution, long nowEpochSeconds) {
+    return SolutionPreCheck.checkV1(solution, nowEpochSeconds) == null
+        && checkProofOfWork(solution) == VALID;
+  }
+
+  /**
+   * Checks a v1 solution before it is sent to the verification API. Puzzles too long to be checked
+   * locally are left to the API.
+   *
+   * @return the error code to reject the solution with, or {@code null} if it has to be verified by
+   *     the API
+   */
+  @Nullable ErrorCode check(String solution, long nowEpochSeconds) {
+    ErrorCode errorCode = SolutionPreCheck.checkV1(solution, nowEpochSeconds);
+    if (errorCode != null) {
+      return errorCode;
+    }
+    return checkProofOfWork(solution) == INVALID ? ErrorCode.SOLUTION_INVALID : null;
+  }
+
+  /** Expects a solution that passed {@link SolutionPreCheck#checkV1(String, long)}. */
+  private int checkProofOfWork(String solution) {
+    int puzzleStart = SolutionPreCheck.SIGNATURE_LENGTH + 1;
+    int puzzleEnd = solution.indexOf('.', puzzleStart);
+    int puzzleLength = SolutionPreCheck.decodedLength(solution, puzzleStart, puzzleEnd);
+    if (puzzleLength > MAX_PUZZLE_LENGTH) {
+      return UNCHECKED;
+    }
+    int solutionCount =
+        SolutionPreCheck.decodeByte(
+            solution, puzzleStart, SolutionPreCheck.PUZZLE_SOLUTION_COUNT_OFFSET);
+    if (solutionCount == 0) {
+      return INVALID;
+    }
+    long threshold =
+        THRESHOLDS[SolutionPreCheck.decodeByte(solution, puzzleStart, PUZZLE_DIFFICULTY_OFFSET)];
+    Blake2b256 hash = hashes.get();
+    long[] message = hash.message;
+    Arrays.fill(message, 0L);
+    for (int i = 0; i < puzzleLength; i++) {
+      message[i >>> 3] |=
+          (long) SolutionPreCheck.decodeByte(solution, puzzleStart, i) << ((i & 7) << 3);
+    }
+    int solutionsStart = puzzleEnd + 1;
+    for (int index = 0; index < solutionCount; index++) {
+      long word = 0;
+      for (int i = 0; i < SolutionPreCheck.SOLUTION_LENGTH; i++) {
+        int offset = index * SolutionPreCheck.SOLUTION_LENGTH + i;
+        word |= (long) SolutionPreCheck.decodeByte(solution, solutionsStart, offset) << (i << 3);
+      }
+      message[message.length - 1] = word;
+      if ((hash.digestFirstWord() & 0xffffffffL) >= threshold) {
+        return INVALID;
+      }
+    }
+    return VALID;
+  }
+}
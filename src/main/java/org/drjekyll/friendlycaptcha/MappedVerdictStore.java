@@ -0,0 +1,293 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link VerdictStore} in a memory-mapped file. All processes on a host that open the same file
+ * share its verdicts, so a solution verified by one JVM is recognised by the others, and the
+ * verdicts are kept across restarts.
+ *
+ * <p>The file holds a header and a fixed number of slots, a power of two. Each slot holds the key
+ * of a solution and a state word with the verdict and its expiry time. A solution is stored in the
+ * first free slot after its home slot, probing at most {@value #MAX_PROBES} slots. A slot is
+ * claimed with a compare-and-set of its state word, which is atomic across processes because they
+ * map the same pages. Expired slots are free again, so no cleanup is needed; if all probed slots
+ * are taken, the one that expires first is overwritten. Readers validate the state word after
+ * reading the key, so a slot being rewritten concurrently counts as a miss.
+ *
+ * <p>Expiry uses the wall clock, so that it means the same to all processes and after a restart. A
+ * process that dies while writing a slot leaves a claim that expires after one second.
+ *
+ * <p>Open a file once per JVM and share the store between its verifiers. {@link #close()} closes
+ * the file; the mapping itself is released when the store is garbage collected.
+ */
+public final class MappedVerdictStore implements VerdictStore, Closeable {
+
+  private static final long MAGIC = 0x4643564552444354L;
+
+  private static final int LAYOUT_VERSION = 1;
+
+  private static final int HEADER_LENGTH = 64;
+
+  private static final int SLOT_LENGTH = 24;
+
+  private static final int MAX_PROBES = 16;
+
+  private static final int MAX_SLOTS = 1 << 26;
+
+  private static final long CLAIM_TIMEOUT_MILLIS = 1000;
+
+  private static final int SIZE_SAMPLE_SLOTS = 4096;
+
+  private static final long STATE_MASK = 3;
+
+  private static final long CLAIMED = 1;
+
+  private static final long REJECTED = 2;
+
+  private static final long ACCEPTED = 3;
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private final FileChannel channel;
+
+  private final ByteBuffer slots;
+
+  private final int slotMask;
+
+  private final long timeToLiveMillis;
+
+  private final LongSupplier clock;
+
+  private MappedVerdictStore(
+      FileChannel channel,
+      ByteBuffer slots,
+      int slotCount,
+      Duration timeToLive,
+      LongSupplier clock) {
+    this.channel = channel;
+    this.slots = slots;
+    this.slotMask = slotCount - 1;
+    this.timeToLiveMillis = timeToLive.toMillis();
+    this.clock = clock;
+  }
+
+  /**
+   * Opens the store in the given file, and creates the file if it does not exist.
+   *
+   * @param file the file shared by all processes
+   * @param slots the number of slots, rounded up to a power of two. Each slot takes 24 bytes. To
+   *     keep lookups short, choose about twice the number of verdicts stored within the time to
+   *     live. Must match the number the file was created with
+   * @param timeToLive how long a verdict is returned
+   * @throws IOException if the file cannot be opened or is not a verdict store
+   * @throws IllegalArgumentException if the number of slots or the time to live is invalid, or the
+   *     file has a different number of slots
+   */
+  public static MappedVerdictStore open(Path file, int slots, Duration timeToLive)
+      throws IOException {
+    return open(file, slots, timeToLive, System::currentTimeMillis);
+  }
+
+  static MappedVerdictStore open(Path file, int slots, Duration timeToLive, LongSupplier clock)
+      throws IOException {
+    if (slots <= 0 || slots > MAX_SLOTS) {
+      throw new IllegalArgumentException(
+          "Verdict store must have between 1 and " + MAX_SLOTS + " slots");
+    }
+    if (timeToLive.toMillis() <= 0) {
+      throw new IllegalArgumentException("Verdict store time to live must be positive");
+    }
+    int slotCount = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+    FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      MappedByteBuffer buffer;
+      // the lock keeps other processes from reading a header that is being written
+      try (FileLock ignored = channel.lock()) {
+        boolean created = !hasHeader(file, channel, slotCount);
+        buffer =
+            channel.map(
+                FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH + (long) slotCount * SLOT_LENGTH);
+        buffer.order(ByteOrder.nativeOrder());
+        if (created) {
+          buffer.putInt(8, LAYOUT_VERSION);
+          buffer.putInt(12, slotCount);
+          buffer.putLong(0, MAGIC);
+          buffer.force();
+        }
+      }
+      return new MappedVerdictStore(channel, buffer, slotCount, timeToLive, clock);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public @Nullable Boolean get(long keyHigh, long keyLow) {
+    long now = clock.getAsLong();
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      int offset = offset(keyHigh, probe);
+      long state = (long) LONGS.getAcquire(slots, offset);
+      if (state == 0) {
+        break;
+      }
+      if (isStored(state) && holds(offset, state, keyHigh, keyLow)) {
+        if (expiresAt(state) <= now) {
+          break;
+        }
+        hits.increment();
+        return (state & STATE_MASK) == ACCEPTED;
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  @Override
+  public void put(long keyHigh, long keyLow, boolean verdict) {
+    long now = clock.getAsLong();
+    long value = (now + timeToLiveMillis) << 2 | (verdict ? ACCEPTED : REJECTED);
+    // if another writer takes the chosen slot first, the probes are scanned again
+    for (int attempt = 0; attempt < MAX_PROBES; attempt++) {
+      int free = -1;
+      long freeState = 0;
+      int victim = -1;
+      long victimState = 0;
+      for (int probe = 0; probe < MAX_PROBES; probe++) {
+        int offset = offset(keyHigh, probe);
+        long state = (long) LONGS.getAcquire(slots, offset);
+        if (state == 0 || expiresAt(state) <= now) {
+          if (free < 0) {
+            free = offset;
+            freeState = state;
+          }
+          if (state == 0) {
+            // lookups stop at a slot that was never used, so the key is not stored further along
+            break;
+          }
+        } else if (isStored(state)) {
+          if (holds(offset, state, keyHigh, keyLow)) {
+            return;
+          }
+          if (victim < 0 || expiresAt(state) < expiresAt(victimState)) {
+            victim = offset;
+            victimState = state;
+          }
+        }
+      }
+      if (free >= 0) {
+        if (claim(free, freeState, keyHigh, keyLow, value, now)) {
+          return;
+        }
+      } else {
+        if (victim >= 0 && claim(victim, victimState, keyHigh, keyLow, value, now)) {
+          evictions.increment();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the statistics of this process. The number of verdicts in the whole file is estimated
+   * from at most {@value #SIZE_SAMPLE_SLOTS} slots spread over the file, so that the cost does not
+   * grow with the file; it is exact for smaller files.
+   */
+  @Override
+  public VerdictCacheStats getStats() {
+    long now = clock.getAsLong();
+    int slotCount = slotMask + 1;
+    int stride = Math.max(1, slotCount / SIZE_SAMPLE_SLOTS);
+    int sampled = 0;
+    int stored = 0;
+    for (int slot = 0; slot < slotCount; slot += stride) {
+      long state = (long) LONGS.getAcquire(slots, HEADER_LENGTH + slot * SLOT_LENGTH);
+      if (isStored(state) && expiresAt(state) > now) {
+        stored++;
+      }
+      sampled++;
+    }
+    int size = (int) ((long) stored * slotCount / sampled);
+    return new VerdictCacheStats(hits.sum(), misses.sum(), evictions.sum(), size);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Returns {@code false} if the file is new, or its creation was interrupted before the header was
+   * written.
+   */
+  private static boolean hasHeader(Path file, FileChannel channel, int slotCount)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.nativeOrder());
+    channel.read(header, 0);
+    if (header.getLong(0) == 0) {
+      return false;
+    }
+    if (header.getLong(0) != MAGIC || header.getInt(8) != LAYOUT_VERSION) {
+      throw new IOException("Not a verdict store: " + file);
+    }
+    if (header.getInt(12) != slotCount) {
+      throw new IllegalArgumentException(
+          "Verdict store " + file + " has " + header.getInt(12) + " slots, not " + slotCount);
+    }
+    return true;
+  }
+
+  private int offset(long keyHigh, int probe) {
+    return HEADER_LENGTH + ((int) keyHigh + probe & slotMask) * SLOT_LENGTH;
+  }
+
+  private boolean holds(int offset, long state, long keyHigh, long keyLow) {
+    long high = slots.getLong(offset + 8);
+    long low = slots.getLong(offset + 16);
+    VarHandle.acquireFence();
+    return high == keyHigh && low == keyLow && (long) LONGS.getAcquire(slots, offset) == state;
+  }
+
+  private boolean claim(int offset, long state, long keyHigh, long keyLow, long value, long now) {
+    long claim = (now + CLAIM_TIMEOUT_MILLIS) << 2 | CLAIMED;
+    if (!LONGS.compareAndSet(slots, offset, state, claim)) {
+      return false;
+    }
+    slots.putLong(offset + 8, keyHigh);
+    slots.putLong(offset + 16, keyLow);
+    LONGS.setRelease(slots, offset, value);
+    return true;
+  }
+
+  private static boolean isStored(long state) {
+    return state != 0 && (state & STATE_MASK) != CLAIMED;
+  }
+
+  private static long expiresAt(long state) {
+    return state >>> 2;
+  }
+}
@@ -0,0 +1,32 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+
+/**
+ * A request body publisher that runs a callback whenever the HTTP client starts to send the body,
+ * i.e. once the connection is established and the request headers are written.
+ */
+final class NotifyingBodyPublisher implements HttpRequest.BodyPublisher {
+
+  private final HttpRequest.BodyPublisher body;
+
+  private final Runnable onSend;
+
+  NotifyingBodyPublisher(HttpRequest.BodyPublisher body, Runnable onSend) {
+    this.body = body;
+    this.onSend = onSend;
+  }
+
+  @Override
+  public long contentLength() {
+    return body.contentLength();
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    onSend.run();
+    body.subscribe(subscriber);
+  }
+}
@@ -0,0 +1,20 @@
+package org.drjekyll.friendlycaptcha;
+
+/** What a verification does when the configured request rate to the API is reached. */
+public enum RateLimitPolicy {
+
+  /**
+   * The request waits for the next free slot, without blocking a thread, up to the maximum wait,
+   * and fails with a {@link RateLimitedException} if it would have to wait longer.
+   */
+  WAIT,
+
+  /** The verification fails right away with a {@link RateLimitedException}. */
+  THROW,
+
+  /** Fail open: the solution is accepted without calling the API. */
+  ACCEPT,
+
+  /** Fail closed: the solution is rejected without calling the API. */
+  REJECT
+}
@@ -0,0 +1,17 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a verification is rejected locally because the configured request rate to the API is
+ * reached, and no request could be sent within the configured maximum wait. No request was sent to
+ * the API.
+ */
+public class RateLimitedException extends FriendlyCaptchaException {
+
+  @Serial private static final long serialVersionUID = 7309584230967712853L;
+
+  RateLimitedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,200 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Limits the rate of requests to the API, so that the quota of the API key is not exceeded.
+ *
+ * <p>A token bucket that holds {@code burst} tokens and refills at {@code rate} tokens per second,
+ * implemented as a generic cell rate algorithm: a single {@link AtomicLong} holds the time at which
+ * the bucket will be full again, and a request reserves its slot with a compare-and-set, so no lock
+ * is taken. A request that finds no token waits for its slot, without blocking a thread, if the
+ * slot is within the maximum wait, and fails with a {@link RateLimitedException} otherwise.
+ *
+ * <p>The limiter adapts to the API: every 429 response halves the rate, at most once per request
+ * round trip and down to 1/{@value #MAX_SLOWDOWN} of the configured rate, and no request is sent
+ * before the delay of a {@code Retry-After} header has passed. Successful responses restore the
+ * configured rate gradually.
+ */
+final class RateLimiter {
+
+  static final int MAX_SLOWDOWN = 64;
+
+  private final AtomicLong fullAt;
+
+  private final AtomicLong slowedDownAt;
+
+  private final AtomicLong pausedUntil;
+
+  private final LongAdder delayed = new LongAdder();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder throttled = new LongAdder();
+
+  private final long baseIntervalNanos;
+
+  private final int burst;
+
+  private final long maxWaitNanos;
+
+  private final LongSupplier nanoClock;
+
+  private volatile long intervalNanos;
+
+  RateLimiter(double rate, int burst, Duration maxWait) {
+    this(rate, burst, maxWait, System::nanoTime);
+  }
+
+  RateLimiter(double rate, int burst, Duration maxWait, LongSupplier nanoClock) {
+    if (!(rate > 0) || Double.isInfinite(rate)) {
+      throw new IllegalArgumentException("Rate limit must be positive");
+    }
+    if (burst < 1) {
+      throw new IllegalArgumentException("Rate limit burst must be at least one");
+    }
+    if (maxWait.isNegative()) {
+      throw new IllegalArgumentException("Rate limit maximum wait must not be negative");
+    }
+    this.baseIntervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / rate));
+    this.burst = burst;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.nanoClock = nanoClock;
+    this.intervalNanos = baseIntervalNanos;
+    long now = nanoClock.getAsLong();
+    this.fullAt = new AtomicLong(now);
+    this.slowedDownAt = new AtomicLong(now);
+    this.pausedUntil = new AtomicLong(now);
+  }
+
+  /**
+   * Sends the request as soon as its slot has come, and adapts the rate to the response. Cancelling
+   * the returned future cancels the request, or keeps a waiting request from being sent.
+   */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    long now = nanoClock.getAsLong();
+    long delay = reserve(now);
+    if (delay < 0) {
+      rejected.increment();
+      return CompletableFuture.failedFuture(
+          new RateLimitedException("Verification API rate limit reached"));
+    }
+    if (delay == 0) {
+      return send(call, now);
+    }
+    delayed.increment();
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+        .execute(
+            () -> {
+              if (result.isDone()) {
+                return;
+              }
+              CompletableFuture<T> future = send(call, now + delay);
+              result.whenComplete(
+                  (value, ex) -> {
+                    if (result.isCancelled()) {
+                      future.cancel(true);
+                    }
+                  });
+              future.whenComplete(
+                  (value, ex) -> {
+                    if (ex == null) {
+                      result.complete(value);
+                    } else {
+                      result.completeExceptionally(ex);
+                    }
+                  });
+            });
+    return result;
+  }
+
+  RateLimiterStats stats() {
+    return new RateLimiterStats(
+        (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos,
+        delayed.sum(),
+        rejected.sum(),
+        throttled.sum());
+  }
+
+  /**
+   * Reserves the next slot.
+   *
+   * @return the nanoseconds until the slot, or -1 if it is further away than the maximum wait
+   */
+  long reserve(long now) {
+    long interval = intervalNanos;
+    long tolerance = (burst - 1) * interval;
+    long paused = pausedUntil.get();
+    while (true) {
+      long full = fullAt.get();
+      long slot = full - tolerance;
+      if (slot - now < 0) {
+        slot = now;
+      }
+      if (slot - paused < 0) {
+        slot = paused;
+      }
+      long delay = slot - now;
+      if (delay > maxWaitNanos) {
+        return -1;
+      }
+      long next = (full - slot > 0 ? full : slot) + interval;
+      if (fullAt.compareAndSet(full, next)) {
+        return delay;
+      }
+    }
+  }
+
+  private <T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> call, long sentAt) {
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    future.whenComplete((result, ex) -> record(sentAt, ex));
+    return future;
+  }
+
+  /** Slows down on 429 responses and speeds up again on successful ones. */
+  void record(long sentAt, @Nullable Throwable ex) {
+    Throwable cause =
+        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    if (cause == null) {
+      long interval = intervalNanos;
+      if (interval != baseIntervalNanos) {
+        intervalNanos = Math.max(baseIntervalNanos, interval - interval / 16);
+      }
+      return;
+    }
+    if (!(cause instanceof FriendlyCaptchaException)) {
+      return;
+    }
+    FriendlyCaptchaException exception = (FriendlyCaptchaException) cause;
+    Integer statusCode = exception.getStatusCode();
+    if (statusCode == null || statusCode != 429) {
+      return;
+    }
+    throttled.increment();
+    long now = nanoClock.getAsLong();
+    long slowedDown = slowedDownAt.get();
+    // requests sent before the last slow down do not reflect it yet
+    if (sentAt - slowedDown >= 0 && slowedDownAt.compareAndSet(slowedDown, now)) {
+      intervalNanos = Math.min(intervalNanos * 2, baseIntervalNanos * MAX_SLOWDOWN);
+    }
+    Duration retryAfter = exception.getRetryAfter();
+    if (retryAfter != null) {
+      pausedUntil.accumulateAndGet(
+          now + retryAfter.toNanos(), (paused, until) -> until - paused > 0 ? until : paused);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the state of the rate limiter of a verifier. */
+@Value
+public class RateLimiterStats {
+
+  /** Requests per second currently allowed, lowered after 429 responses. */
+  double rate;
+
+  /** Number of requests that waited for a free slot. */
+  long delayedCount;
+
+  /** Number of requests that were not sent because the rate was reached. */
+  long rejectedCount;
+
+  /** Number of 429 responses received. */
+  long throttledCount;
+}
@@ -0,0 +1,184 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which solutions have been verified in a fixed amount of memory, so that replayed
+ * solutions are recognised without calling the API. A solution is only added once the API has given
+ * a verdict for it, so a solution whose verification failed can be submitted again.
+ *
+ * <p>The solutions are kept in {@value #GENERATIONS} Bloom filters of equal size, each a {@code
+ * long[]} bit array whose bits are set with an atomic bitwise or, so no lock is taken. Solutions
+ * are added to the current generation and looked up in all of them. Once per rotation interval, a
+ * third of the window, the oldest generation is cleared and becomes the current one, so a solution
+ * is remembered for at least the window. A generation that holds as many solutions as it can at the
+ * configured false positive rate is rotated early, so the false positive rate holds at any load and
+ * only the time a solution is remembered shrinks.
+ *
+ * <p>The false positive rate is split evenly between the generations. The bit positions are derived
+ * from the {@link SolutionHash} of the solution by double hashing, so an attacker cannot craft
+ * solutions that fill the bits of another solution.
+ */
+final class ReplayFilter {
+
+  static final int GENERATIONS = 4;
+
+  private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+  private final long[][] generations = new long[GENERATIONS][];
+
+  private final AtomicLongArray insertions = new AtomicLongArray(GENERATIONS);
+
+  private final LongAdder newSolutions = new LongAdder();
+
+  private final LongAdder seenSolutions = new LongAdder();
+
+  private final LongAdder rotations = new LongAdder();
+
+  private final long bitCount;
+
+  private final int hashFunctions;
+
+  private final long capacity;
+
+  private final long rotationIntervalNanos;
+
+  private final LongSupplier nanoClock;
+
+  private volatile int current;
+
+  private volatile long rotatesAt;
+
+  ReplayFilter(long memoryBytes, double falsePositiveRate, Duration window) {
+    this(memoryBytes, falsePositiveRate, window, System::nanoTime);
+  }
+
+  ReplayFilter(
+      long memoryBytes, double falsePositiveRate, Duration window, LongSupplier nanoClock) {
+    if (memoryBytes < GENERATIONS * Long.BYTES) {
+      throw new IllegalArgumentException(
+          "Replay filter memory must be at least " + GENERATIONS * Long.BYTES + " bytes");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException(
+          "Replay filter false positive rate must be between 0 and 1");
+    }
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Replay filter window must be positive");
+    }
+    long words = Math.min(memoryBytes / GENERATIONS / Long.BYTES, MAX_WORDS);
+    for (int i = 0; i < GENERATIONS; i++) {
+      generations[i] = new long[(int) words];
+    }
+    this.bitCount = words * Long.SIZE;
+    double bitsPerSolution =
+        -Math.log(falsePositiveRate / GENERATIONS) / (Math.log(2) * Math.log(2));
+    this.hashFunctions = Math.max(1, (int) Math.round(bitsPerSolution * Math.log(2)));
+    this.capacity = Math.max(1, (long) (bitCount / bitsPerSolution));
+    this.rotationIntervalNanos = Math.max(1, window.toNanos() / (GENERATIONS - 1));
+    this.nanoClock = nanoClock;
+    this.rotatesAt = nanoClock.getAsLong() + rotationIntervalNanos;
+  }
+
+  /**
+   * Looks the solution up in all generations.
+   *
+   * @return {@code false} if the solution has definitely not been added before, {@code true} if it
+   *     probably has
+   */
+  boolean mightContain(SolutionHash hash) {
+    rotateIfDue(nanoClock.getAsLong());
+    long h1 = hash.getHigh();
+    long h2 = hash.getLow() | 1;
+    boolean seen = false;
+    for (long[] generation : generations) {
+      if (contains(generation, h1, h2)) {
+        seen = true;
+        break;
+      }
+    }
+    (seen ? seenSolutions : newSolutions).increment();
+    return seen;
+  }
+
+  /** Adds the solution to the current generation. */
+  void add(SolutionHash hash) {
+    long now = nanoClock.getAsLong();
+    int index = rotateIfDue(now);
+    long h1 = hash.getHigh();
+    long h2 = hash.getLow() | 1;
+    long[] bits = generations[index];
+    boolean added = false;
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      // only write if the bit is missing, so replays do not invalidate cache lines
+      if (((long) BITS.getOpaque(bits, word) & mask) == 0) {
+        added |= ((long) BITS.getAndBitwiseOr(bits, word, mask) & mask) == 0;
+      }
+    }
+    if (added && insertions.incrementAndGet(index) >= capacity) {
+      rotate(index, now);
+    }
+  }
+
+  ReplayFilterStats stats() {
+    return new ReplayFilterStats(
+        newSolutions.sum(),
+        seenSolutions.sum(),
+        rotations.sum(),
+        capacity,
+        bitCount / Byte.SIZE * GENERATIONS);
+  }
+
+  /** Returns the index of the current generation, after rotating if the interval has passed. */
+  private int rotateIfDue(long now) {
+    int index = current;
+    if (now - rotatesAt >= 0) {
+      rotate(index, now);
+      index = current;
+    }
+    return index;
+  }
+
+  private boolean contains(long[] bits, long h1, long h2) {
+    for (int i = 0; i < hashFunctions; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      if (((long) BITS.getOpaque(bits, (int) (bit >>> 6)) & 1L << bit) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Clears the oldest generation and makes it the current one, unless another thread has already
+   * rotated away from {@code from}. After a quiet period longer than a rotation interval, all
+   * generations that would have been rotated meanwhile are cleared.
+   */
+  private synchronized void rotate(int from, long now) {
+    if (current != from) {
+      return;
+    }
+    long overdue = now - rotatesAt;
+    int count = overdue < 0 ? 1 : (int) Math.min(GENERATIONS, overdue / rotationIntervalNanos + 1);
+    rotatesAt = now + rotationIntervalNanos;
+    int next = from;
+    for (int i = 0; i < count; i++) {
+      next = (next + 1) % GENERATIONS;
+      Arrays.fill(generations[next], 0L);
+      insertions.set(next, 0);
+      rotations.increment();
+    }
+    current = next;
+  }
+}
@@ -0,0 +1,18 @@
+package org.drjekyll.friendlycaptcha;
+
+/** What a verification does with a solution that the replay filter has probably seen before. */
+public enum ReplayFilterPolicy {
+
+  /**
+   * The solution is verified by the API as usual. Useful to measure the share of replayed solutions
+   * with {@link ReplayFilterStats} before rejecting them.
+   */
+  VERIFY,
+
+  /**
+   * The solution is rejected without calling the API, with the error code the API returns for a
+   * solution that has already been used. A new solution is rejected with the false positive rate of
+   * the filter.
+   */
+  REJECT
+}
@@ -0,0 +1,23 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the statistics of the replay filter of a verifier. */
+@Value
+public class ReplayFilterStats {
+
+  /** Number of solutions that were definitely not seen before. */
+  long newCount;
+
+  /** Number of solutions that were probably seen before, including false positives. */
+  long seenCount;
+
+  /** Number of times the oldest generation was cleared, after a period or because it was full. */
+  long rotationCount;
+
+  /** Number of solutions a generation holds before it is rotated early. */
+  long generationCapacity;
+
+  /** Size of the bit arrays of all generations in bytes. */
+  long memoryBytes;
+}
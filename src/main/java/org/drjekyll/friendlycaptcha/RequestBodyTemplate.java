@@ -0,0 +1,36 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A URL-encoded POST body whose constant parameters are encoded once.
+ *
+ * <p>The body consists of the solution parameter followed by the constant parameters, e.g. {@code
+ * solution=...&secret=...&sitekey=...}. Only the solution has to be encoded per request, and it is
+ * written directly into a byte array of the exact final size.
+ */
+final class RequestBodyTemplate {
+
+  private final byte[] prefix;
+
+  private final byte[] suffix;
+
+  /**
+   * @param solutionParameter the name of the parameter that carries the solution
+   * @param constantParameters the remaining, already encoded parameters including the leading
+   *     {@code &}, or an empty string
+   */
+  RequestBodyTemplate(String solutionParameter, String constantParameters) {
+    this.prefix = (solutionParameter + '=').getBytes(StandardCharsets.US_ASCII);
+    this.suffix = constantParameters.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /** Returns the complete body for the given solution. */
+  byte[] render(String solution) {
+    byte[] body = new byte[prefix.length + FormEncoder.encodedLength(solution) + suffix.length];
+    System.arraycopy(prefix, 0, body, 0, prefix.length);
+    int offset = FormEncoder.encode(solution, body, prefix.length);
+    System.arraycopy(suffix, 0, body, offset, suffix.length);
+    return body;
+  }
+}
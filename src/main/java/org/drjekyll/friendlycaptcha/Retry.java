@@ -0,0 +1,158 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Repeats calls that failed because the API was temporarily unavailable.
+ *
+ * <p>The delay before a retry is the one requested by a {@code Retry-After} header, or an
+ * exponential backoff with jitter: half of the backoff is fixed, the other half random, so that
+ * clients that failed at the same time do not retry at the same time. Retries are scheduled on a
+ * delayed executor, so no thread sleeps in the meantime. If a deadline is set, no retry is
+ * scheduled that would start after it, so a {@code Retry-After} delay beyond the deadline fails the
+ * call right away. Cancelling the returned future cancels the attempt in flight.
+ *
+ * <p>Only failures that indicate an unavailable API are retried, see {@link
+ * FriendlyCaptchaException#indicatesUnavailableApi(Throwable)}. Responses with an {@link ErrorCode}
+ * are definitive and never retried.
+ */
+@Slf4j
+class Retry {
+
+  private static final int MAX_BACKOFF_DOUBLINGS = 16;
+
+  /** Longer {@code Retry-After} delays are capped, so that a bogus header cannot stall requests. */
+  static final Duration MAX_RETRY_AFTER = Duration.ofHours(1);
+
+  private final int maxAttempts;
+
+  private final long backoffNanos;
+
+  private final long deadlineNanos;
+
+  private final LongSupplier nanoClock;
+
+  Retry(int maxAttempts, Duration backoff, @Nullable Duration deadline) {
+    this(maxAttempts, backoff, deadline, System::nanoTime);
+  }
+
+  Retry(int maxAttempts, Duration backoff, @Nullable Duration deadline, LongSupplier nanoClock) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("Maximum number of attempts must be at least one");
+    }
+    if (backoff.isNegative()) {
+      throw new IllegalArgumentException("Retry backoff must not be negative");
+    }
+    this.maxAttempts = maxAttempts;
+    this.backoffNanos = backoff.toNanos();
+    this.deadlineNanos = deadline == null ? Long.MAX_VALUE : deadline.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /** Runs the call and repeats it after transient failures, see class description. */
+  <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    attempt(call, 1, nanoClock.getAsLong(), result);
+    return result;
+  }
+
+  /**
+   * Parses the value of a {@code Retry-After} header, which is either a number of seconds or an
+   * HTTP date. Returns {@code null} if the value is missing or invalid.
+   */
+  @Nullable
+  static Duration parseRetryAfter(@Nullable String value, Clock clock) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      long seconds = Long.parseLong(value.trim());
+      return seconds < 0 ? null : min(Duration.ofSeconds(seconds), MAX_RETRY_AFTER);
+    } catch (NumberFormatException e) {
+      // not delay-seconds, try HTTP-date
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      Duration delay = Duration.between(clock.instant(), date.toInstant());
+      return delay.isNegative() ? Duration.ZERO : min(delay, MAX_RETRY_AFTER);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private <T> void attempt(
+      Supplier<CompletableFuture<T>> call, int attempt, long start, CompletableFuture<T> result) {
+    if (result.isDone()) {
+      // cancelled by the caller
+      return;
+    }
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    CompletableFuture<T> inFlight = future;
+    result.whenComplete(
+        (value, ex) -> {
+          if (result.isCancelled()) {
+            inFlight.cancel(true);
+          }
+        });
+    future.whenComplete(
+        (value, ex) -> {
+          if (ex == null) {
+            result.complete(value);
+            return;
+          }
+          Throwable cause =
+              ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+          long delay =
+              attempt < maxAttempts && isRetryable(cause) ? delayNanos(attempt, cause) : -1;
+          if (delay < 0 || delay >= deadlineNanos - (nanoClock.getAsLong() - start)) {
+            result.completeExceptionally(cause);
+            return;
+          }
+          log.debug(
+              "Retrying verification in {} ms after: {}", delay / 1_000_000, cause.getMessage());
+          CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+              .execute(() -> attempt(call, attempt + 1, start, result));
+        });
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  private static boolean isRetryable(Throwable cause) {
+    if (cause instanceof FriendlyCaptchaException
+        && ((FriendlyCaptchaException) cause).getErrorCode() != null) {
+      return false;
+    }
+    return FriendlyCaptchaException.indicatesUnavailableApi(cause);
+  }
+
+  private long delayNanos(int attempt, Throwable cause) {
+    if (cause instanceof FriendlyCaptchaException) {
+      Duration retryAfter = ((FriendlyCaptchaException) cause).getRetryAfter();
+      if (retryAfter != null) {
+        return retryAfter.toNanos();
+      }
+    }
+    long backoff = backoffNanos << Math.min(attempt - 1, MAX_BACKOFF_DOUBLINGS);
+    long half = backoff / 2;
+    return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+  }
+}
@@ -0,0 +1,209 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Dependency-free {@link VerifierMetrics} that counts with striped {@link LongAdder}s and records
+ * the duration of verifications in a fixed-bucket log-linear histogram. Recording never blocks;
+ * reading creates a {@link VerifierMetricsSnapshot}. The metrics can be exposed via JMX, see {@link
+ * VerifierMetricsMXBean}.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * SimpleVerifierMetrics metrics = new SimpleVerifierMetrics();
+ * FriendlyCaptchaVerifier verifier = FriendlyCaptchaVerifier.builder()
+ *     .apiKey("YOUR_API_KEY")
+ *     .metrics(metrics)
+ *     .build();
+ * Duration p99 = metrics.snapshot().getLatencyP99();
+ * }</pre>
+ */
+public class SimpleVerifierMetrics implements VerifierMetrics, VerifierMetricsMXBean {
+
+  private static final int MAX_STATUS_CODE = 599;
+
+  private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+
+  private final LongAdder started = new LongAdder();
+
+  private final LongAdder valid = new LongAdder();
+
+  private final LongAdder invalid = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder unreadableResponses = new LongAdder();
+
+  private final LongAdder timeouts = new LongAdder();
+
+  private final LongAdder locallyRejected = new LongAdder();
+
+  private final LongAdder[] statusCounts = new LongAdder[MAX_STATUS_CODE + 1];
+
+  private final LongAdder[] errorCodeCounts = new LongAdder[ERROR_CODES.length];
+
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  public SimpleVerifierMetrics() {
+    for (int i = 0; i < statusCounts.length; i++) {
+      statusCounts[i] = new LongAdder();
+    }
+    for (int i = 0; i < errorCodeCounts.length; i++) {
+      errorCodeCounts[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public void verificationStarted() {
+    started.increment();
+  }
+
+  @Override
+  public void verificationCompleted(boolean valid, long durationNanos) {
+    (valid ? this.valid : invalid).increment();
+    latencies.record(durationNanos);
+  }
+
+  @Override
+  public void verificationFailed(Throwable error, long durationNanos) {
+    failed.increment();
+    latencies.record(durationNanos);
+  }
+
+  @Override
+  public void responseReceived(int statusCode, @Nullable ErrorCode errorCode) {
+    if (statusCode >= 0 && statusCode <= MAX_STATUS_CODE) {
+      statusCounts[statusCode].increment();
+    }
+    if (errorCode != null) {
+      errorCodeCounts[errorCode.ordinal()].increment();
+    }
+  }
+
+  @Override
+  public void solutionRejectedLocally(ErrorCode errorCode) {
+    locallyRejected.increment();
+    errorCodeCounts[errorCode.ordinal()].increment();
+  }
+
+  @Override
+  public void responseUnreadable() {
+    unreadableResponses.increment();
+  }
+
+  @Override
+  public void requestTimedOut() {
+    timeouts.increment();
+  }
+
+  /** Returns the current values of all metrics. */
+  public VerifierMetricsSnapshot snapshot() {
+    return new VerifierMetricsSnapshot(
+        getVerificationCount(),
+        getValidCount(),
+        getInvalidCount(),
+        getFailedCount(),
+        getInFlightCount(),
+        Duration.ofNanos(latencies.valueAt(0.5)),
+        Duration.ofNanos(latencies.valueAt(0.99)),
+        Duration.ofNanos(latencies.valueAt(0.999)),
+        getUnreadableResponseCount(),
+        getTimeoutCount(),
+        getLocallyRejectedCount(),
+        getStatusCounts(),
+        countErrorCodes());
+  }
+
+  @Override
+  public long getVerificationCount() {
+    return started.sum();
+  }
+
+  @Override
+  public long getValidCount() {
+    return valid.sum();
+  }
+
+  @Override
+  public long getInvalidCount() {
+    return invalid.sum();
+  }
+
+  @Override
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  @Override
+  public long getInFlightCount() {
+    return Math.max(0, started.sum() - valid.sum() - invalid.sum() - failed.sum());
+  }
+
+  @Override
+  public long getLatencyP50Micros() {
+    return TimeUnit.NANOSECONDS.toMicros(latencies.valueAt(0.5));
+  }
+
+  @Override
+  public long getLatencyP99Micros() {
+    return TimeUnit.NANOSECONDS.toMicros(latencies.valueAt(0.99));
+  }
+
+  @Override
+  public long getLatencyP999Micros() {
+    return TimeUnit.NANOSECONDS.toMicros(latencies.valueAt(0.999));
+  }
+
+  @Override
+  public long getUnreadableResponseCount() {
+    return unreadableResponses.sum();
+  }
+
+  @Override
+  public long getTimeoutCount() {
+    return timeouts.sum();
+  }
+
+  @Override
+  public long getLocallyRejectedCount() {
+    return locallyRejected.sum();
+  }
+
+  @Override
+  public Map<Integer, Long> getStatusCounts() {
+    Map<Integer, Long> counts = new TreeMap<>();
+    for (int statusCode = 0; statusCode < statusCounts.length; statusCode++) {
+      long count = statusCounts[statusCode].sum();
+      if (count > 0) {
+        counts.put(statusCode, count);
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public Map<String, Long> getErrorCodeCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    countErrorCodes().forEach((errorCode, count) -> counts.put(errorCode.name(), count));
+    return counts;
+  }
+
+  private Map<ErrorCode, Long> countErrorCodes() {
+    Map<ErrorCode, Long> counts = new EnumMap<>(ErrorCode.class);
+    for (ErrorCode errorCode : ERROR_CODES) {
+      long count = errorCodeCounts[errorCode.ordinal()].sum();
+      if (count > 0) {
+        counts.put(errorCode, count);
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,35 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import lombok.Value;
+
+/**
+ * The first 128 bits of the SHA-256 digest of a solution.
+ *
+ * <p>Used as key wherever solutions have to be remembered, so that the (potentially large) solution
+ * strings themselves are not retained. A cryptographic hash is required here: with a weak hash an
+ * attacker could craft a token that collides with an accepted one and inherit its verdict.
+ */
+@Value
+class SolutionHash {
+
+  long high;
+
+  long low;
+
+  static SolutionHash of(String solution) {
+    ByteBuffer digest = ByteBuffer.wrap(sha256().digest(solution.getBytes(StandardCharsets.UTF_8)));
+    return new SolutionHash(digest.getLong(), digest.getLong());
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.Arrays;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Rejects solutions locally that the verification API would reject anyway, so that no request is
+ * sent for them: widget placeholders such as {@code .UNSTARTED}, {@code .FETCHING} or {@code
+ * .UNFINISHED}, tokens of the wrong format and expired v1 puzzles.
+ *
+ * <p>A v1 solution consists of four dot-separated segments: the hex signature of the puzzle, the
+ * Base64 puzzle, the Base64 solutions with eight bytes per solution, and Base64 diagnostics. The
+ * puzzle starts with its creation time in seconds (bytes 0 to 3, big endian), and byte 13 holds its
+ * lifetime in units of five minutes, zero meaning it never expires. Byte 14 holds the number of
+ * solutions. Only the bytes needed are decoded, straight from the string, so no memory is
+ * allocated. A puzzle counts as expired only {@value #EXPIRY_GRACE_SECONDS} seconds after its
+ * lifetime, so that a clock of this host that runs ahead of the puzzle server does not reject
+ * solutions the API would still accept.
+ *
+ * <p>The format of v2 responses is not specified, so only placeholders and tokens with whitespace
+ * or control characters are rejected.
+ */
+final class SolutionPreCheck {
+
+  static final int SIGNATURE_LENGTH = 32;
+
+  static final int PUZZLE_HEADER_LENGTH = 32;
+
+  static final int SOLUTION_LENGTH = 8;
+
+  static final long EXPIRY_UNIT_SECONDS = 300;
+
+  /** How long after its expiry a puzzle is still sent to the API, in case the clocks differ. */
+  static final long EXPIRY_GRACE_SECONDS = 30;
+
+  private static final int PUZZLE_EXPIRY_OFFSET = 13;
+
+  static final int PUZZLE_SOLUTION_COUNT_OFFSET = 14;
+
+  private static final byte[] BASE64_VALUES = new byte[128];
+
+  static {
+    Arrays.fill(BASE64_VALUES, (byte) -1);
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    for (int i = 0; i < alphabet.length(); i++) {
+      BASE64_VALUES[alphabet.charAt(i)] = (byte) i;
+    }
+  }
+
+  private SolutionPreCheck() {}
+
+  /**
+   * Checks the format and the expiry of a v1 solution.
+   *
+   * @param solution the solution as submitted by the widget
+   * @param nowEpochSeconds the current time in seconds since the epoch
+   * @return {@link ErrorCode#SOLUTION_INVALID} if the solution is malformed, {@link
+   *     ErrorCode#SOLUTION_TIMEOUT_OR_DUPLICATE} if the puzzle expired more than {@value
+   *     #EXPIRY_GRACE_SECONDS} seconds ago, or {@code null} if the solution has to be verified by
+   *     the API
+   */
+  @Nullable
+  static ErrorCode checkV1(String solution, long nowEpochSeconds) {
+    int puzzleStart = solution.indexOf('.') + 1;
+    if (puzzleStart != SIGNATURE_LENGTH + 1 || !isHex(solution, 0, SIGNATURE_LENGTH)) {
+      return ErrorCode.SOLUTION_INVALID;
+    }
+    int puzzleEnd = solution.indexOf('.', puzzleStart);
+    int solutionsEnd = puzzleEnd < 0 ? -1 : solution.indexOf('.', puzzleEnd + 1);
+    if (solutionsEnd < 0
+        || solution.indexOf('.', solutionsEnd + 1) >= 0
+        || !isBase64(solution, puzzleStart, puzzleEnd)
+        || !isBase64(solution, puzzleEnd + 1, solutionsEnd)
+        || !isBase64(solution, solutionsEnd + 1, solution.length())
+        || decodedLength(solution, puzzleStart, puzzleEnd) < PUZZLE_HEADER_LENGTH) {
+      return ErrorCode.SOLUTION_INVALID;
+    }
+    int solutionCount = decodeByte(solution, puzzleStart, PUZZLE_SOLUTION_COUNT_OFFSET);
+    if (decodedLength(solution, puzzleEnd + 1, solutionsEnd) != solutionCount * SOLUTION_LENGTH) {
+      return ErrorCode.SOLUTION_INVALID;
+    }
+    int expiry = decodeByte(solution, puzzleStart, PUZZLE_EXPIRY_OFFSET);
+    if (expiry == 0) {
+      return null;
+    }
+    long timestamp = 0;
+    for (int i = 0; i < 4; i++) {
+      timestamp = timestamp << 8 | decodeByte(solution, puzzleStart, i);
+    }
+    return timestamp + expiry * EXPIRY_UNIT_SECONDS + EXPIRY_GRACE_SECONDS < nowEpochSeconds
+        ? ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE
+        : null;
+  }
+
+  /**
+   * Checks a v2 response for placeholders and characters that never occur in a response.
+   *
+   * @param response the response as submitted by the widget
+   * @return {@link ErrorCode#RESPONSE_INVALID} if the response is malformed, or {@code null} if it
+   *     has to be verified by the API
+   */
+  @Nullable
+  static ErrorCode checkV2(String response) {
+    if (response.charAt(0) == '.') {
+      return ErrorCode.RESPONSE_INVALID;
+    }
+    for (int i = 0; i < response.length(); i++) {
+      char c = response.charAt(i);
+      if (c <= ' ' || c >= 0x7f) {
+        return ErrorCode.RESPONSE_INVALID;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the number of bytes the Base64 characters between start and end decode to. */
+  static int decodedLength(String value, int start, int end) {
+    int length = end - start;
+    int padding = 0;
+    if (length > 0 && value.charAt(end - 1) == '=') {
+      padding++;
+      if (value.charAt(end - 2) == '=') {
+        padding++;
+      }
+    }
+    return length / 4 * 3 - padding;
+  }
+
+  /** Decodes the byte at the given index of the Base64 characters starting at {@code start}. */
+  static int decodeByte(String value, int start, int index) {
+    int group = start + index / 3 * 4;
+    int bits =
+        base64Value(value.charAt(group)) << 18
+            | base64Value(value.charAt(group + 1)) << 12
+            | base64Value(value.charAt(group + 2)) << 6
+            | base64Value(value.charAt(group + 3));
+    return bits >> (16 - index % 3 * 8) & 0xff;
+  }
+
+  private static int base64Value(char c) {
+    return c == '=' ? 0 : BASE64_VALUES[c];
+  }
+
+  /**
+   * Returns {@code true} if the characters between start and end are non-empty, padded Base64 with
+   * at most two trailing {@code =}.
+   */
+  private static boolean isBase64(String value, int start, int end) {
+    int length = end - start;
+    if (length == 0 || length % 4 != 0) {
+      return false;
+    }
+    int dataEnd = end;
+    while (dataEnd > end - 2 && value.charAt(dataEnd - 1) == '=') {
+      dataEnd--;
+    }
+    for (int i = start; i < dataEnd; i++) {
+      char c = value.charAt(i);
+      if (c >= 128 || BASE64_VALUES[c] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isHex(String value, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = value.charAt(i);
+      if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F')) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,133 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Remembers the first verdict per solution for a fixed time to live, so that double submits and
+ * retried requests get the original answer without another round trip.
+ *
+ * <p>All entries share the same time to live, so insertion order equals expiry order. Entries are
+ * therefore kept in a FIFO queue as well, which is used both to evict the oldest entry when the
+ * cache is full and to purge expired entries.
+ */
+class VerdictCache implements VerdictStore {
+
+  private final ConcurrentMap<SolutionHash, Entry> entries = new ConcurrentHashMap<>();
+
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private final int maximumSize;
+
+  private final long timeToLiveNanos;
+
+  private final LongSupplier nanoClock;
+
+  VerdictCache(int maximumSize, Duration timeToLive) {
+    this(maximumSize, timeToLive, System::nanoTime);
+  }
+
+  VerdictCache(int maximumSize, Duration timeToLive, LongSupplier nanoClock) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Verdict cache size must be greater than zero");
+    }
+    if (timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Verdict cache time to live must be positive");
+    }
+    this.maximumSize = maximumSize;
+    this.timeToLiveNanos = timeToLive.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /** Returns the cached verdict, or {@code null} if there is none or it has expired. */
+  @Nullable Boolean get(SolutionHash hash) {
+    Entry entry = entries.get(hash);
+    if (entry == null || entry.isExpired(nanoClock.getAsLong())) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.verdict;
+  }
+
+  @Override
+  public @Nullable Boolean get(long keyHigh, long keyLow) {
+    return get(new SolutionHash(keyHigh, keyLow));
+  }
+
+  @Override
+  public void put(long keyHigh, long keyLow, boolean verdict) {
+    put(new SolutionHash(keyHigh, keyLow), verdict);
+  }
+
+  @Override
+  public VerdictCacheStats getStats() {
+    return stats();
+  }
+
+  /** Stores the verdict unless a verdict for the same solution is already cached. */
+  void put(SolutionHash hash, boolean verdict) {
+    long now = nanoClock.getAsLong();
+    purgeExpired(now);
+    Entry entry = new Entry(hash, verdict, now + timeToLiveNanos);
+    if (entries.putIfAbsent(hash, entry) != null) {
+      return;
+    }
+    size.incrementAndGet();
+    insertionOrder.add(entry);
+    while (size.get() > maximumSize) {
+      Entry oldest = insertionOrder.poll();
+      if (oldest == null) {
+        break;
+      }
+      if (entries.remove(oldest.hash, oldest)) {
+        size.decrementAndGet();
+        evictions.increment();
+      }
+    }
+  }
+
+  VerdictCacheStats stats() {
+    return new VerdictCacheStats(hits.sum(), misses.sum(), evictions.sum(), size.get());
+  }
+
+  private void purgeExpired(long now) {
+    Entry oldest;
+    while ((oldest = insertionOrder.peek()) != null && oldest.isExpired(now)) {
+      if (insertionOrder.remove(oldest) && entries.remove(oldest.hash, oldest)) {
+        size.decrementAndGet();
+        evictions.increment();
+      }
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static final class Entry {
+
+    private final SolutionHash hash;
+
+    private final boolean verdict;
+
+    private final long expiresAtNanos;
+
+    boolean isExpired(long now) {
+      return now - expiresAtNanos >= 0;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+
+/** A point-in-time snapshot of the statistics of the verdict cache of a verifier. */
+@Value
+public class VerdictCacheStats {
+
+  /** Number of verifications answered from the cache. */
+  long hitCount;
+
+  /** Number of verifications that were not found in the cache. */
+  long missCount;
+
+  /** Number of verdicts removed because the cache was full or their time to live had passed. */
+  long evictionCount;
+
+  /** Number of verdicts currently held. */
+  int size;
+}
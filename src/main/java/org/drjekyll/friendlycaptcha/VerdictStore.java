@@ -0,0 +1,57 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Remembers the first verdict per solution, so that repeated verifications of a solution get the
+ * original answer without calling the API, see {@link
+ * FriendlyCaptchaVerifier.FriendlyCaptchaVerifierBuilder#verdictStore(VerdictStore)}.
+ *
+ * <p>Solutions are identified by the first 128 bits of the SHA-256 digest of the solution, so the
+ * solutions themselves are never stored. Implementations decide how long verdicts are kept and
+ * where: {@link #onHeap(int, Duration)} keeps them in the JVM, {@link MappedVerdictStore} in a
+ * memory-mapped file that several processes on one host share and that survives restarts.
+ *
+ * <p>Implementations must be thread-safe. {@link #get(long, long)} is called on the thread that
+ * verifies, before any request is sent, so it should not block.
+ */
+public interface VerdictStore {
+
+  /**
+   * Returns the verdict stored for a solution.
+   *
+   * @param keyHigh the first 64 bits of the SHA-256 digest of the solution
+   * @param keyLow the next 64 bits of the SHA-256 digest of the solution
+   * @return the verdict, or {@code null} if none is stored or it has expired
+   */
+  @Nullable Boolean get(long keyHigh, long keyLow);
+
+  /**
+   * Stores the verdict for a solution, unless a verdict for it is already stored.
+   *
+   * @param keyHigh the first 64 bits of the SHA-256 digest of the solution
+   * @param keyLow the next 64 bits of the SHA-256 digest of the solution
+   * @param verdict the verdict of the API
+   */
+  void put(long keyHigh, long keyLow, boolean verdict);
+
+  /** Returns a snapshot of the statistics of the store, or {@code null} if it keeps none. */
+  @Nullable
+  default VerdictCacheStats getStats() {
+    return null;
+  }
+
+  /**
+   * Returns a store that keeps verdicts on the heap of this JVM. When it is full, the oldest
+   * verdict is evicted.
+   *
+   * @param maximumSize the maximum number of verdicts
+   * @param timeToLive how long a verdict is returned
+   * @throws IllegalArgumentException if the size is not positive or the time to live is not
+   *     positive
+   */
+  static VerdictStore onHeap(int maximumSize, Duration timeToLive) {
+    return new VerdictCache(maximumSize, timeToLive);
+  }
+}
@@ -0,0 +1,52 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The state of one verification that is handed down to its requests: the ID reported to the {@link
+ * VerificationListener}, and the last response received or the local rejection, which {@link
+ * VerificationResult} reports.
+ *
+ * <p>Retried and hedged requests of the same verification may answer concurrently, so the response
+ * fields are replaced as a whole.
+ */
+final class VerificationContext {
+
+  private final long id;
+
+  private volatile @Nullable Response response;
+
+  VerificationContext(long id) {
+    this.id = id;
+  }
+
+  long getId() {
+    return id;
+  }
+
+  void responseReceived(URI endpoint, int statusCode, @Nullable ErrorCode errorCode) {
+    response = new Response(endpoint, statusCode, errorCode);
+  }
+
+  void rejectedLocally(ErrorCode errorCode) {
+    response = new Response(null, null, errorCode);
+  }
+
+  @Nullable Response getResponse() {
+    return response;
+  }
+
+  @Value
+  static class Response {
+
+    /** The endpoint, or {@code null} if the solution was rejected locally. */
+    @Nullable URI endpoint;
+
+    /** The HTTP status code, or {@code null} if the solution was rejected locally. */
+    @Nullable Integer statusCode;
+
+    @Nullable ErrorCode errorCode;
+  }
+}
@@ -0,0 +1,106 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for a single request to the verification API, so that slow
+ * verifications can be told apart from other socket reads in a recording.
+ *
+ * <p>The request is split into three phases: building the request, waiting for the response
+ * headers, and receiving, decoding and evaluating the response body. The event is only created
+ * while a recording has it enabled, so it costs next to nothing otherwise.
+ */
+@Name("org.drjekyll.friendlycaptcha.Verification")
+@Label("Friendly Captcha Verification")
+@Category("Friendly Captcha")
+@Description("A request to the Friendly Captcha verification API")
+@StackTrace(false)
+class VerificationEvent extends Event {
+
+  @Label("Endpoint")
+  String endpoint;
+
+  @Label("API Version")
+  String version;
+
+  @Label("Status Code")
+  @Description("HTTP status code of the response, 0 if no response was received")
+  int statusCode;
+
+  @Label("Error Code")
+  @Nullable String errorCode;
+
+  @Label("Valid")
+  boolean valid;
+
+  @Label("Build Duration")
+  @Timespan
+  long buildDuration;
+
+  @Label("Wait Duration")
+  @Description("Time from sending the request until the response headers arrived")
+  @Timespan
+  long waitDuration;
+
+  @Label("Parse Duration")
+  @Description("Time from the response headers until the response body was decoded and evaluated")
+  @Timespan
+  long parseDuration;
+
+  private transient long phaseStart;
+
+  private transient boolean headersReceived;
+
+  /** Begins an event for a request, or returns {@code null} if no recording has it enabled. */
+  static @Nullable VerificationEvent start(URI endpoint, FriendlyCaptchaVersion version) {
+    VerificationEvent event = new VerificationEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.endpoint = endpoint.toString();
+    event.version = version.name();
+    event.begin();
+    event.phaseStart = System.nanoTime();
+    return event;
+  }
+
+  void requestBuilt() {
+    long now = System.nanoTime();
+    buildDuration = now - phaseStart;
+    phaseStart = now;
+  }
+
+  void headersReceived() {
+    long now = System.nanoTime();
+    waitDuration = now - phaseStart;
+    phaseStart = now;
+    headersReceived = true;
+  }
+
+  void responseReceived(int statusCode, @Nullable ErrorCode errorCode) {
+    this.statusCode = statusCode;
+    this.errorCode = errorCode == null ? null : errorCode.name();
+  }
+
+  void finish(@Nullable Boolean valid) {
+    long elapsed = System.nanoTime() - phaseStart;
+    if (headersReceived) {
+      parseDuration = elapsed;
+    } else {
+      waitDuration = elapsed;
+    }
+    this.valid = Boolean.TRUE.equals(valid);
+    end();
+    if (shouldCommit()) {
+      commit();
+    }
+  }
+}
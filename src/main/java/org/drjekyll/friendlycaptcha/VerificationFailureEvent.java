@@ -0,0 +1,48 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for a verification that timed out or was short-circuited by an open
+ * circuit breaker.
+ */
+@Name("org.drjekyll.friendlycaptcha.VerificationFailure")
+@Label("Friendly Captcha Verification Failure")
+@Category("Friendly Captcha")
+@Description("A verification that timed out or was answered by an open circuit breaker")
+@StackTrace(false)
+class VerificationFailureEvent extends Event {
+
+  static final String TIMEOUT = "Timeout";
+
+  static final String CIRCUIT_OPEN = "Circuit open";
+
+  @Label("Failure")
+  String failure;
+
+  @Label("Endpoint")
+  @Description("The endpoint of the request, empty if no request was sent")
+  @Nullable String endpoint;
+
+  @Label("Message")
+  @Nullable String message;
+
+  /** Commits an event if a recording has it enabled. */
+  static void emit(String failure, @Nullable URI endpoint, @Nullable String message) {
+    VerificationFailureEvent event = new VerificationFailureEvent();
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.failure = failure;
+    event.endpoint = endpoint == null ? null : endpoint.toString();
+    event.message = message;
+    event.commit();
+  }
+}
@@ -0,0 +1,104 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+
+/**
+ * Receives the phases of each verification of a {@link FriendlyCaptchaVerifier}, e.g. to bridge
+ * them to a tracing system, see {@link
+ * FriendlyCaptchaVerifier.FriendlyCaptchaVerifierBuilder#listener(VerificationListener)}.
+ *
+ * <p>Every call carries the {@code verificationId} that was passed to {@link
+ * #verificationStarted(long, long)}, so that the phases of concurrent verifications can be told
+ * apart, and a {@link System#nanoTime()} timestamp. A verification sends no request if its verdict
+ * is cached, if it joins a concurrent verification of the same solution or if an open circuit
+ * breaker answers it. It sends several requests if it is retried or hedged; their phases carry the
+ * endpoint of the request.
+ *
+ * <p>The methods are called on the threads that run the verifications, possibly concurrently, so
+ * implementations must be thread-safe and should return quickly. {@link #verificationStarted(long,
+ * long)} is called on the thread that called {@code verify}, so the current tracing context can be
+ * captured there.
+ */
+public interface VerificationListener {
+
+  /**
+   * Called when a verification starts, before the verdict cache is consulted.
+   *
+   * @param verificationId identifies the verification in all later calls
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void verificationStarted(long verificationId, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when a request has been built, just before it is handed to the HTTP client.
+   *
+   * @param verificationId the verification that sends the request
+   * @param endpoint the endpoint the request is sent to
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void requestBuilt(long verificationId, URI endpoint, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when the HTTP client starts to send the body of a request, i.e. once it is connected and
+   * has written the request headers. Called again if the client sends the request once more, e.g.
+   * after a connection was closed by the server.
+   *
+   * @param verificationId the verification that sends the request
+   * @param endpoint the endpoint the request is sent to
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void requestSent(long verificationId, URI endpoint, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when the status line and headers of a response have been received, before its body is
+   * read.
+   *
+   * @param verificationId the verification that sent the request
+   * @param endpoint the endpoint that answered
+   * @param statusCode the HTTP status code
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void responseHeadersReceived(
+      long verificationId, URI endpoint, int statusCode, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when the body of a response has been read and decoded, before it is evaluated.
+   *
+   * @param verificationId the verification that sent the request
+   * @param endpoint the endpoint that answered
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void responseParsed(long verificationId, URI endpoint, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when a verification returned a verdict.
+   *
+   * @param verificationId the verification
+   * @param valid the verdict
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void verificationCompleted(long verificationId, boolean valid, long nanoTime) {
+    // optional
+  }
+
+  /**
+   * Called when a verification failed.
+   *
+   * @param verificationId the verification
+   * @param error the failure, usually a {@link FriendlyCaptchaException}
+   * @param nanoTime the {@link System#nanoTime()} of the event
+   */
+  default void verificationFailed(long verificationId, Throwable error, long nanoTime) {
+    // optional
+  }
+}
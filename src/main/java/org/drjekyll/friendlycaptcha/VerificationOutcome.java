@@ -0,0 +1,37 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The outcome of verifying one solution of a batch, see {@link
+ * FriendlyCaptchaVerifier#verifyAll(java.util.Collection)}.
+ *
+ * <p>Exactly one of {@link #getValid()} and {@link #getError()} is set: the verdict if the API
+ * answered, or the exception that {@link FriendlyCaptchaVerifier#verify(String)} would have thrown.
+ */
+@Value
+public class VerificationOutcome {
+
+  /** The verified solution as passed in. */
+  @Nullable String solution;
+
+  /**
+   * {@code true} if the solution was accepted, {@code false} if it was rejected, or {@code null} if
+   * the verification failed.
+   */
+  @Nullable Boolean valid;
+
+  /** The reason the verification failed, or {@code null} if a verdict is available. */
+  @Nullable FriendlyCaptchaException error;
+
+  /** Returns {@code true} if the solution was accepted. */
+  public boolean isAccepted() {
+    return Boolean.TRUE.equals(valid);
+  }
+
+  /** Returns {@code true} if the verification failed and no verdict is available. */
+  public boolean isFailed() {
+    return error != null;
+  }
+}
@@ -0,0 +1,33 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The parts of a siteverify response body that are needed to evaluate a verification: the {@code
+ * success} flag, the first known {@link ErrorCode} and the v1 {@code details} message.
+ *
+ * <p>Responses without error information are represented by the shared {@link #SUCCESS} and {@link
+ * #FAILURE} instances, so decoding a plain verdict does not allocate.
+ */
+@Value
+class VerificationResponse {
+
+  static final VerificationResponse SUCCESS = new VerificationResponse(true, null, null);
+
+  static final VerificationResponse FAILURE = new VerificationResponse(false, null, null);
+
+  boolean success;
+
+  @Nullable ErrorCode errorCode;
+
+  @Nullable String details;
+
+  static VerificationResponse of(
+      boolean success, @Nullable ErrorCode errorCode, @Nullable String details) {
+    if (errorCode == null && details == null) {
+      return success ? SUCCESS : FAILURE;
+    }
+    return new VerificationResponse(success, errorCode, details);
+  }
+}
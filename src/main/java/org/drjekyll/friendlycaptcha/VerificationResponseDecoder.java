@@ -0,0 +1,94 @@
+package org.drjekyll.friendlycaptcha;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+/**
+ * Token-level decoder for v1 and v2 siteverify response bodies.
+ *
+ * <p>Only {@code success}, the first error code ({@code errors[0]} for v1, {@code error.error_code}
+ * for v2) and the v1 {@code details} message are extracted. All other properties, including the v2
+ * {@code data} object, are skipped without being materialized. The decoder is driven one token at a
+ * time, so it works with blocking as well as non-blocking parsers.
+ */
+class VerificationResponseDecoder {
+
+  private int depth;
+
+  @Nullable private String propertyName;
+
+  private boolean inErrors;
+
+  private boolean inError;
+
+  private boolean success;
+
+  @Nullable private ErrorCode errorCode;
+
+  @Nullable private String details;
+
+  /** {@code true} as soon as the root object has been closed. */
+  @Getter private boolean complete;
+
+  /**
+   * Consumes the given token, which must be the current token of the parser.
+   *
+   * @return {@code true} if the root object has been closed and no more tokens are expected
+   */
+  boolean accept(JsonToken token, JsonParser parser) {
+    if (depth == 0 && token != JsonToken.START_OBJECT) {
+      throw new FriendlyCaptchaException("Could not read response from verification API");
+    }
+    switch (token) {
+      case START_OBJECT -> {
+        // nested values keep the flags of the property they are in
+        if (depth == 1) {
+          inError = "error".equals(propertyName);
+        }
+        depth++;
+      }
+      case START_ARRAY -> {
+        if (depth == 1) {
+          inErrors = "errors".equals(propertyName);
+        }
+        depth++;
+      }
+      case END_OBJECT, END_ARRAY -> {
+        depth--;
+        if (depth == 1) {
+          inError = false;
+          inErrors = false;
+        }
+        complete = depth == 0;
+      }
+      case PROPERTY_NAME -> propertyName = parser.currentName();
+      case VALUE_TRUE, VALUE_FALSE -> {
+        if (depth == 1 && "success".equals(propertyName)) {
+          success = token == JsonToken.VALUE_TRUE;
+        }
+      }
+      case VALUE_STRING -> acceptString(parser);
+      default -> {
+        // numbers and nulls carry nothing we need
+      }
+    }
+    return complete;
+  }
+
+  /** Returns the decoded response. Only meaningful once {@link #isComplete()} returns true. */
+  VerificationResponse getResponse() {
+    return VerificationResponse.of(success, errorCode, details);
+  }
+
+  private void acceptString(JsonParser parser) {
+    if (depth == 2
+        && errorCode == null
+        && (inErrors || inError && "error_code".equals(propertyName))) {
+      errorCode = ErrorCode.forCode(parser.getString());
+    } else if (depth == 1 && "details".equals(propertyName)) {
+      details = parser.getString();
+    }
+  }
+}
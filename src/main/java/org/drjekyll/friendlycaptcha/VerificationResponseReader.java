@@ -1,23 +1,81 @@
 package org.drjekyll.friendlycaptcha;
 
 import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NonNull;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 import tools.jackson.databind.ObjectMapper;
 
 @RequiredArgsConstructor
 class VerificationResponseReader {
 
+  /** A body with the fields of both API versions, so that every branch of the decoder runs. */
+  private static final byte[] WARM_UP_BODY =
+      ("{\"success\":false,\"errors\":[\"solution_invalid\"],"
+              + "\"error\":{\"error_code\":\"response_invalid\",\"detail\":\"warm-up\"},"
+              + "\"details\":\"warm-up\",\"data\":{\"event_id\":\"warm-up\"}}")
+          .getBytes(StandardCharsets.US_ASCII);
+
   private final ObjectMapper objectMapper;
 
   /**
-   * Reads and deserialises the response body into the given class using the shared ObjectMapper.
+   * Reads the response body token by token using a parser created by the shared ObjectMapper. No
+   * data binding takes place, see {@link VerificationResponseDecoder}.
    */
-  <T> T readResponse(@NonNull InputStream inputStream, @NonNull Class<T> responseClass) {
-    try {
-      return objectMapper.readValue(inputStream, responseClass);
+  VerificationResponse readResponse(@NonNull InputStream inputStream) {
+    VerificationResponseDecoder decoder = new VerificationResponseDecoder();
+    try (JsonParser parser = objectMapper.createParser(inputStream)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        if (decoder.accept(token, parser)) {
+          return decoder.getResponse();
+        }
+      }
+    } catch (FriendlyCaptchaException e) {
+      throw e;
     } catch (Exception e) {
       throw new FriendlyCaptchaException("Could not read response from verification API", e);
     }
+    throw new FriendlyCaptchaException("Could not read response from verification API");
+  }
+
+  /**
+   * Returns a body handler that decodes the response body without blocking, see {@link
+   * VerificationResponseSubscriber}. Bodies of responses with a status other than 200 are decoded
+   * leniently.
+   */
+  HttpResponse.BodyHandler<VerificationResponse> bodyHandler() {
+    return responseInfo ->
+        new VerificationResponseSubscriber(
+            objectMapper.createNonBlockingByteBufferParser(), responseInfo.statusCode() != 200);
+  }
+
+  /**
+   * Decodes a sample body once, so that the parser and decoder classes are loaded and initialized
+   * before the first response arrives.
+   */
+  void warmUp() {
+    VerificationResponseSubscriber subscriber =
+        new VerificationResponseSubscriber(objectMapper.createNonBlockingByteBufferParser(), true);
+    subscriber.onSubscribe(
+        new Flow.Subscription() {
+          @Override
+          public void request(long n) {
+            // the sample body is pushed at once
+          }
+
+          @Override
+          public void cancel() {
+            // nothing to release
+          }
+        });
+    subscriber.onNext(List.of(ByteBuffer.wrap(WARM_UP_BODY)));
+    subscriber.onComplete();
   }
 }
@@ -0,0 +1,126 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.async.ByteBufferFeeder;
+
+/**
+ * Decodes a siteverify response body while it arrives, without ever blocking a thread.
+ *
+ * <p>Every {@link ByteBuffer} delivered by the HTTP client is fed into a non-blocking Jackson
+ * parser, and the available tokens are handed to a {@link VerificationResponseDecoder}. The body
+ * future completes as soon as the response has been fully received and decoded.
+ *
+ * <p>Error responses often have a body that is not JSON, e.g. an HTML page of a proxy. A lenient
+ * subscriber therefore completes with {@link VerificationResponse#FAILURE} if the body cannot be
+ * decoded, so that the status code is reported instead of a parse error.
+ */
+class VerificationResponseSubscriber implements HttpResponse.BodySubscriber<VerificationResponse> {
+
+  private final CompletableFuture<VerificationResponse> result = new CompletableFuture<>();
+
+  private final VerificationResponseDecoder decoder = new VerificationResponseDecoder();
+
+  private final JsonParser parser;
+
+  private final ByteBufferFeeder feeder;
+
+  private final boolean lenient;
+
+  private Flow.Subscription subscription;
+
+  /**
+   * @param parser a non-blocking parser as created by {@code
+   *     ObjectMapper.createNonBlockingByteBufferParser()}
+   * @param lenient whether a body that cannot be decoded yields {@link
+   *     VerificationResponse#FAILURE} instead of an exception
+   */
+  VerificationResponseSubscriber(JsonParser parser, boolean lenient) {
+    this.parser = parser;
+    this.feeder = (ByteBufferFeeder) parser;
+    this.lenient = lenient;
+  }
+
+  @Override
+  public CompletionStage<VerificationResponse> getBody() {
+    return result;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    subscription.request(1);
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> buffers) {
+    try {
+      for (ByteBuffer buffer : buffers) {
+        if (!decoder.isComplete() && buffer.hasRemaining()) {
+          feeder.feedInput(buffer);
+          drain();
+        }
+      }
+    } catch (Exception e) {
+      fail(e);
+      subscription.cancel();
+      return;
+    }
+    subscription.request(1);
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    parser.close();
+    result.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    try {
+      if (!decoder.isComplete()) {
+        feeder.endOfInput();
+        drain();
+      }
+    } catch (Exception e) {
+      fail(e);
+      return;
+    }
+    parser.close();
+    if (decoder.isComplete()) {
+      result.complete(decoder.getResponse());
+    } else if (lenient) {
+      result.complete(VerificationResponse.FAILURE);
+    } else {
+      result.completeExceptionally(
+          new FriendlyCaptchaException("Could not read response from verification API"));
+    }
+  }
+
+  private void drain() {
+    JsonToken token;
+    while (!decoder.isComplete()
+        && (token = parser.nextToken()) != null
+        && token != JsonToken.NOT_AVAILABLE) {
+      decoder.accept(token, parser);
+    }
+  }
+
+  private void fail(Exception e) {
+    parser.close();
+    if (lenient) {
+      result.complete(VerificationResponse.FAILURE);
+      return;
+    }
+    result.completeExceptionally(
+        e instanceof FriendlyCaptchaException
+            ? e
+            : new FriendlyCaptchaException("Could not read response from verification API", e));
+  }
+}
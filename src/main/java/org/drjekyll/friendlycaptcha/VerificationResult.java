@@ -0,0 +1,103 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The detailed result of a verification, see {@link
+ * FriendlyCaptchaVerifier#verifyDetailed(String)}.
+ *
+ * <p>The response fields describe the last response of the verification API. They are {@code null}
+ * if no request was sent, e.g. because the verdict was cached, a concurrent verification of the
+ * same solution was joined, the circuit breaker answered, or the request failed without a response.
+ * A solution rejected by the local pre-check only has an error code.
+ */
+@Value
+public class VerificationResult {
+
+  /** Whether the solution was accepted or rejected, or the verification failed. */
+  VerificationStatus status;
+
+  /**
+   * The error code of the response, e.g. {@link ErrorCode#SOLUTION_TIMEOUT_OR_DUPLICATE} for a
+   * rejected solution, or {@code null} if there is none.
+   */
+  @Nullable ErrorCode errorCode;
+
+  /** The HTTP status code of the response, or {@code null} if no response was received. */
+  @Nullable Integer statusCode;
+
+  /** The endpoint that sent the response, or {@code null} if no response was received. */
+  @Nullable URI endpoint;
+
+  /** The time from the start of the verification until the result was available. */
+  Duration duration;
+
+  /**
+   * The failure if the status is {@link VerificationStatus#ERROR}, as {@link
+   * FriendlyCaptchaVerifier#verify(String)} would have thrown it, or {@code null} otherwise.
+   */
+  @Nullable FriendlyCaptchaException error;
+
+  /** Returns {@code true} if the solution was accepted. */
+  public boolean isAccepted() {
+    return status == VerificationStatus.ACCEPTED;
+  }
+
+  /** Returns {@code true} if the solution was rejected. */
+  public boolean isRejected() {
+    return status == VerificationStatus.REJECTED;
+  }
+
+  /** Returns {@code true} if the verification failed and no verdict is available. */
+  public boolean isError() {
+    return status == VerificationStatus.ERROR;
+  }
+
+  static VerificationResult rejected(long durationNanos) {
+    return new VerificationResult(
+        VerificationStatus.REJECTED, null, null, null, Duration.ofNanos(durationNanos), null);
+  }
+
+  static VerificationResult failed(FriendlyCaptchaException error, long durationNanos) {
+    return new VerificationResult(
+        VerificationStatus.ERROR, null, null, null, Duration.ofNanos(durationNanos), error);
+  }
+
+  static VerificationResult of(
+      VerificationContext context,
+      @Nullable Boolean valid,
+      @Nullable Throwable ex,
+      long durationNanos) {
+    VerificationContext.Response response = context.getResponse();
+    ErrorCode errorCode = response == null ? null : response.getErrorCode();
+    Integer statusCode = response == null ? null : response.getStatusCode();
+    URI endpoint = response == null ? null : response.getEndpoint();
+    Duration duration = Duration.ofNanos(durationNanos);
+    if (ex == null) {
+      return new VerificationResult(
+          Boolean.TRUE.equals(valid) ? VerificationStatus.ACCEPTED : VerificationStatus.REJECTED,
+          errorCode,
+          statusCode,
+          endpoint,
+          duration,
+          null);
+    }
+    Throwable cause =
+        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    FriendlyCaptchaException error =
+        cause instanceof FriendlyCaptchaException fce
+            ? fce
+            : new FriendlyCaptchaException("Could not check solution", cause);
+    return new VerificationResult(
+        VerificationStatus.ERROR,
+        error.getErrorCode() == null ? errorCode : error.getErrorCode(),
+        error.getStatusCode() == null ? statusCode : error.getStatusCode(),
+        endpoint,
+        duration,
+        error);
+  }
+}
@@ -0,0 +1,14 @@
+package org.drjekyll.friendlycaptcha;
+
+/** The state of a {@link VerificationResult}. */
+public enum VerificationStatus {
+
+  /** The solution was accepted. */
+  ACCEPTED,
+
+  /** The solution was rejected, e.g. because it is invalid, expired or was used before. */
+  REJECTED,
+
+  /** No verdict is available because the verification failed, e.g. with an API error response. */
+  ERROR
+}
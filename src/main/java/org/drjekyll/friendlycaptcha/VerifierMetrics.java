@@ -0,0 +1,70 @@
+package org.drjekyll.friendlycaptcha;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Receives telemetry from a {@link FriendlyCaptchaVerifier}, see {@link
+ * FriendlyCaptchaVerifier.FriendlyCaptchaVerifierBuilder#metrics(VerifierMetrics)}.
+ *
+ * <p>The methods are called on the threads that run the verifications, possibly concurrently, so
+ * implementations must be thread-safe and should return quickly. {@link SimpleVerifierMetrics} is a
+ * dependency-free implementation that can be exposed via JMX.
+ */
+public interface VerifierMetrics {
+
+  /** Called when a verification starts, before the verdict cache is consulted. */
+  default void verificationStarted() {
+    // optional
+  }
+
+  /**
+   * Called when a verification returned a verdict.
+   *
+   * @param valid the verdict
+   * @param durationNanos the time since {@link #verificationStarted()}
+   */
+  default void verificationCompleted(boolean valid, long durationNanos) {
+    // optional
+  }
+
+  /**
+   * Called when a verification failed.
+   *
+   * @param error the failure, usually a {@link FriendlyCaptchaException}
+   * @param durationNanos the time since {@link #verificationStarted()}
+   */
+  default void verificationFailed(Throwable error, long durationNanos) {
+    // optional
+  }
+
+  /**
+   * Called for every response of the verification API, including responses to retried and hedged
+   * requests.
+   *
+   * @param statusCode the HTTP status code
+   * @param errorCode the error code of the response body, if any
+   */
+  default void responseReceived(int statusCode, @Nullable ErrorCode errorCode) {
+    // optional
+  }
+
+  /**
+   * Called when a solution was rejected locally without calling the API, see {@link
+   * FriendlyCaptchaVerifier.FriendlyCaptchaVerifierBuilder#preCheckSolutions(boolean)}.
+   *
+   * @param errorCode the error code the API would have rejected the solution with
+   */
+  default void solutionRejectedLocally(ErrorCode errorCode) {
+    // optional
+  }
+
+  /** Called when a successful response of the verification API could not be read. */
+  default void responseUnreadable() {
+    // optional
+  }
+
+  /** Called when a request to the verification API timed out. */
+  default void requestTimedOut() {
+    // optional
+  }
+}
@@ -0,0 +1,44 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link SimpleVerifierMetrics}. Latencies are reported in microseconds.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * ManagementFactory.getPlatformMBeanServer()
+ *     .registerMBean(metrics, new ObjectName("org.drjekyll.friendlycaptcha:type=VerifierMetrics"));
+ * }</pre>
+ */
+public interface VerifierMetricsMXBean {
+
+  long getVerificationCount();
+
+  long getValidCount();
+
+  long getInvalidCount();
+
+  long getFailedCount();
+
+  long getInFlightCount();
+
+  long getLatencyP50Micros();
+
+  long getLatencyP99Micros();
+
+  long getLatencyP999Micros();
+
+  long getUnreadableResponseCount();
+
+  long getTimeoutCount();
+
+  long getLocallyRejectedCount();
+
+  /** Number of responses per HTTP status code. */
+  Map<Integer, Long> getStatusCounts();
+
+  /** Number of responses and local rejections per error code. */
+  Map<String, Long> getErrorCodeCounts();
+}
@@ -0,0 +1,49 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.time.Duration;
+import java.util.Map;
+import lombok.Value;
+
+/** A point-in-time snapshot of {@link SimpleVerifierMetrics}. */
+@Value
+public class VerifierMetricsSnapshot {
+
+  /** Number of verifications started so far. */
+  long verificationCount;
+
+  /** Number of verifications that accepted the solution. */
+  long validCount;
+
+  /** Number of verifications that rejected the solution. */
+  long invalidCount;
+
+  /** Number of verifications that failed with an exception. */
+  long failedCount;
+
+  /** Number of verifications currently in progress. */
+  long inFlightCount;
+
+  /** Median duration of the completed verifications. */
+  Duration latencyP50;
+
+  /** 99th percentile of the duration of the completed verifications. */
+  Duration latencyP99;
+
+  /** 99.9th percentile of the duration of the completed verifications. */
+  Duration latencyP999;
+
+  /** Number of successful responses that could not be read. */
+  long unreadableResponseCount;
+
+  /** Number of requests that timed out. */
+  long timeoutCount;
+
+  /** Number of solutions rejected locally without calling the API. */
+  long locallyRejectedCount;
+
+  /** Number of responses per HTTP status code. */
+  Map<Integer, Long> statusCounts;
+
+  /** Number of responses and local rejections per error code. */
+  Map<ErrorCode, Long> errorCodeCounts;
+}
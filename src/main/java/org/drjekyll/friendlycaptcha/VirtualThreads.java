@@ -0,0 +1,48 @@
+package org.drjekyll.friendlycaptcha;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Access to virtual threads without compiling against Java 21. The factory method is looked up once
+ * at runtime, so the library still runs on Java 17.
+ */
+class VirtualThreads {
+
+  @Nullable private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+  /**
+   * Returns an executor that starts a new virtual thread for each task.
+   *
+   * @throws IllegalStateException if the running JVM does not support virtual threads
+   */
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+      throw new IllegalStateException("Virtual threads require Java 21 or newer");
+    }
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("Could not create virtual thread executor", e);
+    }
+  }
+
+  @Nullable
+  private static MethodHandle lookup() {
+    try {
+      return MethodHandles.publicLookup()
+          .findStatic(
+              Executors.class,
+              "newVirtualThreadPerTaskExecutor",
+              MethodType.methodType(ExecutorService.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AimdConcurrencyLimitTest {
+
+  private final AimdConcurrencyLimit limit = new AimdConcurrencyLimit(10, 12);
+
+  @Test
+  void growsWhileLatencyIsStableAndLimitIsUsed() {
+
+    limit.onSample(1_000_000, false, 10);
+    limit.onSample(1_100_000, false, 10);
+    limit.onSample(900_000, false, 10);
+
+    assertThat(limit.getLimit()).isEqualTo(12);
+  }
+
+  @Test
+  void keepsLimitWhenMostSlotsAreIdle() {
+
+    limit.onSample(1_000_000, false, 2);
+
+    assertThat(limit.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void shrinksWhenLatencyRises() {
+
+    limit.onSample(1_000_000, false, 10);
+    limit.onSample(5_000_000, false, 10);
+
+    assertThat(limit.getLimit()).isEqualTo(9);
+  }
+
+  @Test
+  void shrinksWhenCallsAreDroppedButNotBelowOne() {
+
+    for (int i = 0; i < 100; i++) {
+      limit.onSample(1_000_000, true, 10);
+    }
+
+    assertThat(limit.getLimit()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,50 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HexFormat;
+import org.junit.jupiter.api.Test;
+
+class Blake2b256Test {
+
+  private final Blake2b256 blake2b = new Blake2b256();
+
+  private final long[] digest = new long[4];
+
+  @Test
+  void hashesZeroBlock() {
+
+    blake2b.digest(digest);
+
+    assertThat(hex(digest))
+        .isEqualTo("378d0caaaa3855f1b38693c1d6ef004fd118691c95c959d4efa950d6d6fcf7c1");
+  }
+
+  @Test
+  void hashesCountingBlock() {
+
+    ByteBuffer block = ByteBuffer.allocate(Blake2b256.BLOCK_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < Blake2b256.BLOCK_LENGTH; i++) {
+      block.put(i, (byte) i);
+    }
+    for (int i = 0; i < blake2b.message.length; i++) {
+      blake2b.message[i] = block.getLong(i * 8);
+    }
+
+    blake2b.digest(digest);
+
+    assertThat(hex(digest))
+        .isEqualTo("c3582f71ebb2be66fa5dd750f80baae97554f3b015663c8be377cfcb2488c1d1");
+    assertThat(blake2b.digestFirstWord()).isEqualTo(digest[0]);
+  }
+
+  private static String hex(long[] words) {
+    ByteBuffer bytes = ByteBuffer.allocate(words.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+    for (long word : words) {
+      bytes.putLong(word);
+    }
+    return HexFormat.of().formatHex(bytes.array());
+  }
+}
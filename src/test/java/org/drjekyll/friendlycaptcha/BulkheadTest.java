@@ -0,0 +1,147 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+  private final CompletableFuture<String> first = new CompletableFuture<>();
+
+  private final CompletableFuture<String> second = new CompletableFuture<>();
+
+  @Test
+  void queuesCallsAndHandsOverSlots() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 1, null);
+
+    CompletableFuture<String> running = bulkhead.execute(() -> first);
+    CompletableFuture<String> queued = bulkhead.execute(() -> second);
+
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 1, 0, 1));
+
+    first.complete("first");
+    assertThat(running).isCompletedWithValue("first");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 0, 0, 1));
+
+    second.complete("second");
+    assertThat(queued).isCompletedWithValue("second");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 0, 1));
+  }
+
+  @Test
+  void rejectsCallsWhenQueueIsFull() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 0, null);
+    bulkhead.execute(() -> first);
+
+    CompletableFuture<String> rejected = bulkhead.execute(() -> second);
+
+    assertThat(rejected)
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .havingCause()
+        .isInstanceOf(BulkheadFullException.class)
+        .withMessage("Too many concurrent verifications");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 0, 1, 1));
+  }
+
+  @Test
+  void rejectsCallsWaitingLongerThanMaxQueueTime() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 1, Duration.ofMillis(10));
+    bulkhead.execute(() -> first);
+
+    CompletableFuture<String> queued = bulkhead.execute(() -> second);
+
+    assertThat(queued)
+        .failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .havingCause()
+        .isInstanceOf(BulkheadFullException.class)
+        .withMessage("Timed out waiting for a free verification slot");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 0, 1, 1));
+
+    first.complete("first");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 1, 1));
+  }
+
+  @Test
+  void removesCancelledCallsFromQueue() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 1, null);
+    bulkhead.execute(() -> first);
+    CompletableFuture<String> queued = bulkhead.execute(() -> second);
+
+    queued.cancel(true);
+
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 0, 0, 1));
+    first.complete("first");
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 0, 1));
+  }
+
+  @Test
+  void cancelsRunningCallAndHandsOverItsSlot() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 1, null);
+    CompletableFuture<String> running = bulkhead.execute(() -> first);
+    CompletableFuture<String> queued = bulkhead.execute(() -> second);
+
+    running.cancel(true);
+
+    assertThat(first).isCancelled();
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 0, 0, 1));
+    second.complete("second");
+    assertThat(queued).isCompletedWithValue("second");
+  }
+
+  @Test
+  void releasesSlotWhenCallFailsToStart() {
+
+    Bulkhead bulkhead = new Bulkhead(1, 0, null);
+
+    CompletableFuture<String> failed =
+        bulkhead.execute(
+            () -> {
+              throw new IllegalStateException("boom");
+            });
+
+    assertThat(failed).isCompletedExceptionally();
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 0, 1));
+  }
+
+  @Test
+  void admitsWaitersWhenAdaptiveLimitGrows() {
+
+    AimdConcurrencyLimit limit = new AimdConcurrencyLimit(1, 2);
+    Bulkhead bulkhead = new Bulkhead(limit, 2, null);
+    CompletableFuture<String> third = new CompletableFuture<>();
+
+    bulkhead.execute(() -> first);
+    CompletableFuture<String> queued = bulkhead.execute(() -> second);
+    CompletableFuture<String> alsoQueued = bulkhead.execute(() -> third);
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(1, 2, 0, 1));
+
+    first.complete("first");
+
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(2, 0, 0, 2));
+    second.complete("second");
+    third.complete("third");
+    assertThat(queued).isCompletedWithValue("second");
+    assertThat(alsoQueued).isCompletedWithValue("third");
+  }
+
+  @Test
+  void lowersAdaptiveLimitWhenCallsAreDropped() {
+
+    Bulkhead bulkhead = new Bulkhead(new AimdConcurrencyLimit(2, 2), 0, null);
+
+    bulkhead.execute(() -> first);
+    first.completeExceptionally(new FriendlyCaptchaException("Could not check solution"));
+
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 0, 1));
+  }
+}
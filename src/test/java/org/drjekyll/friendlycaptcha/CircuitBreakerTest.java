@@ -0,0 +1,201 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final FriendlyCaptchaException UNAVAILABLE =
+      new FriendlyCaptchaException("Verification API returned error status", 503);
+
+  private long now;
+
+  private int calls;
+
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(CircuitBreakerPolicy.REJECT, 4, 50, Duration.ofSeconds(10), () -> now);
+
+  @Test
+  void opensWhenFailureRateIsReached() {
+
+    succeed();
+    fail();
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.OPEN, 2, 1, 0));
+
+    CompletableFuture<Boolean> shortCircuited = circuitBreaker.execute(this::success);
+
+    assertThat(shortCircuited).isCompletedWithValue(false);
+    assertThat(calls).isEqualTo(2);
+    assertThat(circuitBreaker.stats().getShortCircuitedCount()).isOne();
+  }
+
+  @Test
+  void staysClosedBeforeMinimumNumberOfCalls() {
+
+    fail();
+
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 1, 1, 0));
+  }
+
+  @Test
+  void ignoresApiErrorsThatDoNotIndicateAnOutage() {
+
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.execute(
+          () ->
+              CompletableFuture.failedFuture(
+                  new FriendlyCaptchaException("Bad request", 400, ErrorCode.BAD_REQUEST)));
+    }
+
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 4, 0, 0));
+  }
+
+  @Test
+  void slidesWindowOverOldestOutcomes() {
+
+    fail();
+    succeed();
+    succeed();
+    succeed();
+    succeed();
+
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 4, 0, 0));
+  }
+
+  @Test
+  void closesAfterSuccessfulProbe() {
+
+    fail();
+    fail();
+    now += Duration.ofSeconds(10).toNanos();
+
+    CompletableFuture<Boolean> probe = new CompletableFuture<>();
+    circuitBreaker.execute(() -> probe);
+    assertThat(circuitBreaker.stats().getState()).isEqualTo(CircuitBreakerState.HALF_OPEN);
+    assertThat(circuitBreaker.execute(this::success)).isCompletedWithValue(false);
+
+    probe.complete(true);
+
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 0, 0, 1));
+  }
+
+  @Test
+  void reopensAfterFailedProbe() {
+
+    fail();
+    fail();
+    now += Duration.ofSeconds(10).toNanos();
+    fail();
+
+    assertThat(circuitBreaker.stats().getState()).isEqualTo(CircuitBreakerState.OPEN);
+    now += Duration.ofSeconds(9).toNanos();
+    assertThat(circuitBreaker.execute(this::success)).isCompletedWithValue(false);
+    assertThat(calls).isEqualTo(3);
+  }
+
+  @Test
+  void cancelsCall() {
+
+    CompletableFuture<Boolean> call = new CompletableFuture<>();
+
+    circuitBreaker.execute(() -> call).cancel(true);
+
+    assertThat(call).isCancelled();
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 0, 0, 0));
+  }
+
+  @Test
+  void ignoresCancelledCalls() {
+
+    fail();
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.execute(
+          () -> CompletableFuture.failedFuture(new CancellationException("Abandoned")));
+    }
+
+    assertThat(circuitBreaker.stats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.CLOSED, 1, 1, 0));
+  }
+
+  @Test
+  void leavesHalfOpenStateWhenProbeIsCancelled() {
+
+    fail();
+    fail();
+    now += Duration.ofSeconds(10).toNanos();
+    CompletableFuture<Boolean> probe = new CompletableFuture<>();
+
+    circuitBreaker.execute(() -> probe).cancel(true);
+
+    assertThat(probe).isCancelled();
+    assertThat(circuitBreaker.stats().getState()).isEqualTo(CircuitBreakerState.OPEN);
+    circuitBreaker.execute(this::success);
+    assertThat(circuitBreaker.stats().getState()).isEqualTo(CircuitBreakerState.CLOSED);
+  }
+
+  @Test
+  void throwsWhenPolicyIsThrow() {
+
+    CircuitBreaker throwing =
+        new CircuitBreaker(CircuitBreakerPolicy.THROW, 1, 100, Duration.ofSeconds(10), () -> now);
+    throwing.execute(() -> CompletableFuture.failedFuture(UNAVAILABLE));
+
+    assertThat(throwing.execute(this::success))
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .havingCause()
+        .isInstanceOf(CircuitBreakerOpenException.class);
+  }
+
+  @Test
+  void acceptsWhenPolicyIsAccept() {
+
+    CircuitBreaker accepting =
+        new CircuitBreaker(CircuitBreakerPolicy.ACCEPT, 1, 100, Duration.ofSeconds(10), () -> now);
+    accepting.execute(() -> CompletableFuture.failedFuture(UNAVAILABLE));
+
+    assertThat(accepting.execute(this::success)).isCompletedWithValue(true);
+  }
+
+  @Test
+  void answersWithLocalVerdictWhenPolicyIsVerifyLocally() {
+
+    CircuitBreaker verifying =
+        new CircuitBreaker(
+            CircuitBreakerPolicy.VERIFY_LOCALLY, 1, 100, Duration.ofSeconds(10), () -> now);
+    verifying.execute(() -> CompletableFuture.failedFuture(UNAVAILABLE));
+
+    assertThat(verifying.execute(this::success, () -> true)).isCompletedWithValue(true);
+    assertThat(verifying.execute(this::success, () -> false)).isCompletedWithValue(false);
+    assertThat(verifying.execute(this::success)).isCompletedWithValue(false);
+    assertThat(calls).isZero();
+  }
+
+  private void succeed() {
+    circuitBreaker.execute(this::success);
+  }
+
+  private void fail() {
+    circuitBreaker.execute(
+        () -> {
+          calls++;
+          return CompletableFuture.failedFuture(UNAVAILABLE);
+        });
+  }
+
+  private CompletableFuture<Boolean> success() {
+    calls++;
+    return CompletableFuture.completedFuture(true);
+  }
+}
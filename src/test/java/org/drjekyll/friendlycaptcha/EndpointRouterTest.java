@@ -0,0 +1,116 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.Test;
+
+class EndpointRouterTest {
+
+  private static final URI GLOBAL =
+      URI.create("https://global.frcapi.com/api/v2/captcha/siteverify");
+
+  private static final URI EU = URI.create("https://eu.frcapi.com/api/v2/captcha/siteverify");
+
+  private static final FriendlyCaptchaException UNAVAILABLE =
+      new FriendlyCaptchaException("Verification API returned error status", 503);
+
+  private long now;
+
+  private final EndpointRouter router =
+      new EndpointRouter(List.of(GLOBAL, EU), Duration.ofSeconds(30), () -> now);
+
+  @Test
+  void keepsConfiguredOrderWithoutSamples() {
+
+    assertThat(router.rank()).containsExactly(GLOBAL, EU);
+  }
+
+  @Test
+  void prefersFasterEndpoint() {
+
+    router.record(GLOBAL, millis(80), null);
+    router.record(EU, millis(20), null);
+
+    assertThat(router.rank()).containsExactly(EU, GLOBAL);
+  }
+
+  @Test
+  void penalizesFailingEndpoint() {
+
+    router.record(GLOBAL, millis(20), null);
+    router.record(EU, millis(30), null);
+    router.record(GLOBAL, millis(20), UNAVAILABLE);
+
+    assertThat(router.rank()).containsExactly(EU, GLOBAL);
+  }
+
+  @Test
+  void ignoresDefinitiveErrors() {
+
+    router.record(GLOBAL, millis(20), null);
+    router.record(EU, millis(30), null);
+    router.record(
+        GLOBAL,
+        millis(20),
+        new FriendlyCaptchaException("The solution was invalid", 400, ErrorCode.SOLUTION_INVALID));
+
+    assertThat(router.rank()).containsExactly(GLOBAL, EU);
+  }
+
+  @Test
+  void countsCancelledRequestsWithTimeUntilCancellation() {
+
+    router.record(GLOBAL, millis(20), null);
+    router.record(EU, millis(30), null);
+    for (int i = 0; i < 3; i++) {
+      router.record(GLOBAL, millis(500), new CancellationException());
+    }
+
+    assertThat(router.rank()).containsExactly(EU, GLOBAL);
+  }
+
+  @Test
+  void ejectsRepeatedlyFailingEndpointAndProbesItLater() {
+
+    router.record(EU, millis(100), null);
+    for (int i = 0; i < 5; i++) {
+      router.record(GLOBAL, millis(10), UNAVAILABLE);
+    }
+
+    assertThat(router.rank()).containsExactly(EU, GLOBAL);
+    assertThat(router.stats().get(0).isEjected()).isTrue();
+
+    now += Duration.ofSeconds(30).toNanos();
+
+    assertThat(router.rank()).containsExactly(GLOBAL, EU);
+    router.record(GLOBAL, millis(10), UNAVAILABLE);
+    assertThat(router.stats().get(0).isEjected()).isTrue();
+  }
+
+  @Test
+  void keepsProbedEndpointAfterSuccess() {
+
+    for (int i = 0; i < 5; i++) {
+      router.record(GLOBAL, millis(10), UNAVAILABLE);
+    }
+    now += Duration.ofSeconds(30).toNanos();
+    router.rank();
+
+    router.record(GLOBAL, millis(10), null);
+    router.record(EU, millis(100), null);
+
+    assertThat(router.rank()).containsExactly(GLOBAL, EU);
+    assertThat(router.stats())
+        .containsExactly(
+            new EndpointStats(GLOBAL, Duration.ofMillis(10), 0, false),
+            new EndpointStats(EU, Duration.ofMillis(100), 0, false));
+  }
+
+  private static long millis(long millis) {
+    return Duration.ofMillis(millis).toNanos();
+  }
+}
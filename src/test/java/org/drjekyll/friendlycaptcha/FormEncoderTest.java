@@ -0,0 +1,38 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class FormEncoderTest {
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "plain-Text_0.9*",
+        "YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AgAF",
+        "a b+c&d=e%f~g",
+        "ümläut ß €",
+        "emoji 😀 end",
+        "unpaired \uD83D high",
+        "unpaired \uDE00 low",
+        "trailing high \uD83D"
+      })
+  void encodesLikeUrlEncoder(String value) {
+
+    int length = FormEncoder.encodedLength(value);
+    byte[] target = new byte[length + 2];
+
+    int end = FormEncoder.encode(value, target, 1);
+
+    assertThat(end).isEqualTo(length + 1);
+    assertThat(new String(target, 1, length, StandardCharsets.US_ASCII))
+        .isEqualTo(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    assertThat(target[0]).isZero();
+    assertThat(target[end]).isZero();
+  }
+}
@@ -3,15 +3,22 @@ package org.drjekyll.friendlycaptcha;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.ExecutionException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @WireMockTest(httpPort = 8080)
 class FriendlyCaptchaV1ClientTest {
@@ -195,6 +202,200 @@ class FriendlyCaptchaV1ClientTest {
         .hasFieldOrPropertyWithValue("errorCode", ErrorCode.SECRET_INVALID);
   }
 
+  @Test
+  void rejectsPlaceholdersAndExpiredPuzzlesLocally() {
+
+    SimpleVerifierMetrics metrics = new SimpleVerifierMetrics();
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V1)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .preCheckSolutions(true)
+            .metrics(metrics)
+            .build();
+
+    whenValidatesSolution(".UNFINISHED");
+    VerificationResult expired =
+        verifier.verifyDetailed(
+            "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=."
+                + "A".repeat(512)
+                + ".AgAF");
+
+    assertThat(valid).isFalse();
+    assertThat(expired.isRejected()).isTrue();
+    assertThat(expired.getErrorCode()).isEqualTo(ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE);
+    assertThat(expired.getStatusCode()).isNull();
+    assertThat(metrics.getLocallyRejectedCount()).isEqualTo(2);
+    verify(0, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void rejectsUnsolvedPuzzleLocally() {
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V1)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .localProofOfWorkCheck(true)
+            .build();
+
+    // a puzzle that never expires, with the highest difficulty and a solution of zeros
+    VerificationResult unsolved =
+        verifier.verifyDetailed(
+            "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQAB/wAAAAAAAAAA3evEukjCNZE="
+                + ".AAAAAAAAAAA=.AgAF");
+
+    assertThat(unsolved.isRejected()).isTrue();
+    assertThat(unsolved.getErrorCode()).isEqualTo(ErrorCode.SOLUTION_INVALID);
+    verify(0, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void rejectsReplayedSolutionLocally() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V1)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .replayFilterPolicy(ReplayFilterPolicy.REJECT)
+            .build();
+
+    whenValidatesSolution("test");
+    VerificationResult replayed = verifier.verifyDetailed("test");
+
+    assertThat(valid).isTrue();
+    assertThat(replayed.isRejected()).isTrue();
+    assertThat(replayed.getErrorCode()).isEqualTo(ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE);
+    assertThat(verifier.getReplayFilterStats().getSeenCount()).isOne();
+    verify(1, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void verifiesResubmittedSolutionAfterFailedVerification() {
+
+    stubFor(
+        post("/")
+            .inScenario("outage")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(503))
+            .willSetStateTo("recovered"));
+    stubFor(
+        post("/")
+            .inScenario("outage")
+            .whenScenarioStateIs("recovered")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V1)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .replayFilterPolicy(ReplayFilterPolicy.REJECT)
+            .build();
+
+    assertThatThrownBy(() -> whenValidatesSolution("test"))
+        .isInstanceOf(FriendlyCaptchaException.class);
+    whenValidatesSolution("test");
+
+    assertThat(valid).isTrue();
+    assertThat(verifier.getReplayFilterStats().getSeenCount()).isZero();
+    verify(2, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void sharesVerdictsBetweenVerifiersThroughMappedStore(@TempDir Path directory)
+      throws IOException {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    Path file = directory.resolve("verdicts");
+    try (MappedVerdictStore first = MappedVerdictStore.open(file, 1024, Duration.ofMinutes(5));
+        MappedVerdictStore second = MappedVerdictStore.open(file, 1024, Duration.ofMinutes(5))) {
+      verifier =
+          FriendlyCaptchaVerifier.builder()
+              .verificationEndpoint(LOCALHOST)
+              .apiKey(VALID_API_KEY)
+              .verdictStore(first)
+              .build();
+      whenValidatesSolution("test");
+      verifier =
+          FriendlyCaptchaVerifier.builder()
+              .verificationEndpoint(LOCALHOST)
+              .apiKey(VALID_API_KEY)
+              .verdictStore(second)
+              .build();
+
+      whenValidatesSolution("test");
+
+      assertThat(valid).isTrue();
+      assertThat(verifier.getVerdictCacheStats().getHitCount()).isOne();
+      verify(1, postRequestedFor(urlEqualTo("/")));
+    }
+  }
+
+  @Test
+  void pausesRequestsAsToldByRetryAfter() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(429)
+                    .withHeader("Retry-After", "60")
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":false}")));
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V1)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .rateLimit(100)
+            .rateLimitPolicy(RateLimitPolicy.THROW)
+            .build();
+
+    assertThatThrownBy(() -> whenValidatesSolution("first"))
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .extracting("statusCode")
+        .isEqualTo(429);
+    assertThatThrownBy(() -> whenValidatesSolution("second"))
+        .isInstanceOf(RateLimitedException.class)
+        .hasMessage("Verification API rate limit reached");
+    assertThat(verifier.getRateLimiterStats()).isEqualTo(new RateLimiterStats(50, 0, 1, 1));
+    verify(1, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void failsOnLocalProofOfWorkCheckForV2() {
+
+    FriendlyCaptchaVerifier.FriendlyCaptchaVerifierBuilder builder =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .apiKey(VALID_API_KEY)
+            .circuitBreakerPolicy(CircuitBreakerPolicy.VERIFY_LOCALLY);
+
+    assertThatThrownBy(builder::build)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Local proof of work checks require API version 1");
+  }
+
   private void whenValidatesSolution(String solution) {
     valid = verifier.verify(solution);
   }
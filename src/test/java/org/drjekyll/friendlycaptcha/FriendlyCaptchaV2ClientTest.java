@@ -2,16 +2,38 @@ package org.drjekyll.friendlycaptcha;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.headRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
 
 @WireMockTest(httpPort = 8080)
 class FriendlyCaptchaV2ClientTest {
@@ -133,6 +155,51 @@ class FriendlyCaptchaV2ClientTest {
         .hasMessage("The provided API key was invalid");
   }
 
+  @Test
+  void reportsDetailedResultsWithoutThrowing() throws Exception {
+
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=duplicate"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"success\":false,\"error\":{\"error_code\":\"response_duplicate\"}}")));
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=unauthorized"))
+            .willReturn(
+                aResponse()
+                    .withStatus(401)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":false,\"error\":{\"error_code\":\"auth_invalid\"}}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    VerificationResult rejected = verifier.verifyDetailed("duplicate");
+    VerificationResult failed = verifier.verifyDetailedAsync("unauthorized").get();
+
+    assertThat(rejected.getStatus()).isEqualTo(VerificationStatus.REJECTED);
+    assertThat(rejected.getErrorCode()).isEqualTo(ErrorCode.RESPONSE_DUPLICATE);
+    assertThat(rejected.getStatusCode()).isEqualTo(200);
+    assertThat(rejected.getEndpoint()).isEqualTo(LOCALHOST);
+    assertThat(rejected.getDuration()).isPositive();
+    assertThat(rejected.getError()).isNull();
+    assertThat(failed.isError()).isTrue();
+    assertThat(failed.getErrorCode()).isEqualTo(ErrorCode.AUTH_INVALID);
+    assertThat(failed.getStatusCode()).isEqualTo(401);
+    assertThat(failed.getError()).hasMessage("The provided API key was invalid");
+    assertThat(failed.getError().getStackTrace()).isEmpty();
+    assertThat(verifier.verifyDetailed("").isRejected()).isTrue();
+  }
+
   @Test
   void apiKeyIsNotIncludedInBody() {
 
@@ -171,7 +238,10 @@ class FriendlyCaptchaV2ClientTest {
             .build();
 
     assertThatThrownBy(() -> whenValidatesSolution("test"))
-        .isInstanceOf(FriendlyCaptchaException.class);
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .hasMessage("Verification API returned error status")
+        .extracting("statusCode")
+        .isEqualTo(500);
   }
 
   @Test
@@ -248,6 +318,668 @@ class FriendlyCaptchaV2ClientTest {
     assertThat(verifier.verifyAsync("valid-solution").get()).isTrue();
   }
 
+  @Test
+  void returnsCachedVerdictForRepeatedSolution() throws Exception {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"success\":false,\"error\":{\"error_code\":\"response_invalid\"}}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .verdictCacheSize(10)
+            .build();
+
+    whenValidatesSolution("double-submit");
+    boolean retried = verifier.verifyAsync("double-submit").get();
+
+    assertThat(valid).isFalse();
+    assertThat(retried).isFalse();
+    verify(1, postRequestedFor(urlEqualTo("/")));
+    assertThat(verifier.getVerdictCacheStats()).isEqualTo(new VerdictCacheStats(1, 1, 0, 1));
+  }
+
+  @Test
+  void coalescesConcurrentVerificationsOfSameSolution() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(500)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .coalesceRequests(true)
+            .build();
+
+    List<CompletableFuture<Boolean>> futures =
+        List.of(
+            verifier.verifyAsync("retry-storm"),
+            verifier.verifyAsync("retry-storm"),
+            CompletableFuture.supplyAsync(() -> verifier.verify("retry-storm")),
+            verifier.verifyAsync("retry-storm"));
+
+    assertThat(futures).allSatisfy(future -> assertThat(future.join()).isTrue());
+    verify(1, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void verifiesBatchAndReportsPartialFailures() {
+
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=valid"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=invalid"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"success\":false,\"error\":{\"error_code\":\"response_invalid\"}}")));
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=broken"))
+            .willReturn(aResponse().withStatus(500)));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    List<VerificationOutcome> outcomes =
+        verifier.verifyAll(Arrays.asList("valid", "invalid", "broken", "", "valid", null), 2);
+
+    assertThat(outcomes)
+        .extracting(VerificationOutcome::getSolution, VerificationOutcome::getValid)
+        .containsExactly(
+            tuple("valid", true),
+            tuple("invalid", false),
+            tuple("broken", null),
+            tuple("", false),
+            tuple("valid", true),
+            tuple(null, false));
+    assertThat(outcomes.get(2).isFailed()).isTrue();
+    assertThat(outcomes.get(2).getError().getStatusCode()).isEqualTo(500);
+    verify(4, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void completesEmptyBatchImmediately() throws Exception {
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    assertThat(verifier.verifyAllAsync(List.of(), 1).get()).isEmpty();
+    assertThatThrownBy(() -> verifier.verifyAll(List.of("test"), 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Maximum parallelism must be at least one");
+  }
+
+  @Test
+  void rejectsVerificationsBeyondConcurrencyLimit() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(500)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .maxConcurrentCalls(1)
+            .build();
+
+    CompletableFuture<Boolean> running = verifier.verifyAsync("first");
+
+    assertThatThrownBy(() -> whenValidatesSolution("second"))
+        .isInstanceOf(BulkheadFullException.class)
+        .hasMessage("Too many concurrent verifications");
+    assertThat(verifier.getBulkheadStats()).isEqualTo(new BulkheadStats(1, 0, 1, 1));
+    assertThat(running.join()).isTrue();
+  }
+
+  @Test
+  void releasesExchangeWhenVerificationIsCancelled() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(5000)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .maxConcurrentCalls(1)
+            .circuitBreakerPolicy(CircuitBreakerPolicy.THROW)
+            .maxAttempts(3)
+            .verdictCacheSize(10)
+            .build();
+
+    CompletableFuture<Boolean> running = verifier.verifyAsync("test");
+    assertThat(verifier.getBulkheadStats()).isEqualTo(new BulkheadStats(1, 0, 0, 1));
+
+    running.cancel(true);
+
+    assertThat(verifier.getBulkheadStats()).isEqualTo(new BulkheadStats(0, 0, 0, 1));
+    assertThat(verifier.getVerdictCacheStats()).isEqualTo(new VerdictCacheStats(0, 1, 0, 0));
+  }
+
+  @Test
+  void multiplexesConcurrentVerifications() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")
+                    .withFixedDelay(50)));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .httpVersion(HttpClient.Version.HTTP_2)
+            .maxConcurrentCalls(50)
+            .maxQueuedCalls(500)
+            .build();
+
+    List<CompletableFuture<Boolean>> futures =
+        IntStream.range(0, 500).mapToObj(i -> verifier.verifyAsync("solution-" + i)).toList();
+
+    assertThat(CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)))
+        .succeedsWithin(Duration.ofSeconds(30));
+    assertThat(futures).allSatisfy(future -> assertThat(future.join()).isTrue());
+    verify(500, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void neverUpgradesPinnedHttp11() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .httpVersion(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    assertThat(verifier.verify("valid")).isTrue();
+
+    verify(postRequestedFor(urlEqualTo("/")).withoutHeader("Upgrade"));
+  }
+
+  @Test
+  void completesOnCallbackExecutor() throws Exception {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    ExecutorService callbackExecutor =
+        Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "captcha-callback"));
+    try {
+      verifier =
+          FriendlyCaptchaVerifier.builder()
+              .version(FriendlyCaptchaVersion.V2)
+              .verificationEndpoint(LOCALHOST)
+              .apiKey(VALID_API_KEY)
+              .callbackExecutor(callbackExecutor)
+              .build();
+
+      String thread =
+          verifier.verifyAsync("test").thenApply(valid -> Thread.currentThread().getName()).get();
+
+      assertThat(thread).isEqualTo("captcha-callback");
+    } finally {
+      callbackExecutor.shutdown();
+    }
+  }
+
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  void completesOnVirtualThreads() throws Exception {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .virtualThreads(true)
+            .build();
+
+    Thread thread = verifier.verifyAsync("test").thenApply(valid -> Thread.currentThread()).get();
+
+    assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+    assertThat(verifier.verify("test")).isTrue();
+  }
+
+  @Test
+  @EnabledForJreRange(max = JRE.JAVA_20)
+  void rejectsVirtualThreadsBeforeJava21() {
+
+    assertThatThrownBy(
+            () ->
+                FriendlyCaptchaVerifier.builder()
+                    .version(FriendlyCaptchaVersion.V2)
+                    .apiKey(VALID_API_KEY)
+                    .virtualThreads(true)
+                    .build())
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Virtual threads require Java 21 or newer");
+  }
+
+  @Test
+  void failsOpenWhileCircuitBreakerIsOpen() {
+
+    stubFor(post("/").willReturn(aResponse().withStatus(503)));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .circuitBreakerPolicy(CircuitBreakerPolicy.ACCEPT)
+            .circuitBreakerWindowSize(4)
+            .build();
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> verifier.verify("test"))
+          .isInstanceOf(FriendlyCaptchaException.class);
+    }
+
+    assertThat(verifier.verify("test")).isTrue();
+    verify(2, postRequestedFor(urlEqualTo("/")));
+    assertThat(verifier.getCircuitBreakerStats())
+        .isEqualTo(new CircuitBreakerStats(CircuitBreakerState.OPEN, 2, 2, 1));
+  }
+
+  @Test
+  void retriesAfterDelayOfRetryAfterHeader() {
+
+    stubFor(
+        post("/")
+            .inScenario("outage")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(503).withHeader("Retry-After", "0"))
+            .willSetStateTo("recovered"));
+    stubFor(
+        post("/")
+            .inScenario("outage")
+            .whenScenarioStateIs("recovered")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .maxAttempts(3)
+            .retryBackoff(Duration.ofSeconds(30))
+            .build();
+
+    assertThat(verifier.verify("test")).isTrue();
+    verify(2, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void hedgesSlowEndpointWithNextEndpoint() {
+
+    stubFor(
+        post("/slow")
+            .willReturn(
+                aResponse()
+                    .withFixedDelay(5000)
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":false}")));
+    stubFor(
+        post("/fast")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoints(List.of(LOCALHOST.resolve("/slow"), LOCALHOST.resolve("/fast")))
+            .hedgeDelay(Duration.ofMillis(50))
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    long start = System.nanoTime();
+    assertThat(verifier.verify("test")).isTrue();
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(4));
+    verify(1, postRequestedFor(urlEqualTo("/fast")));
+  }
+
+  @Test
+  void routesToHealthyEndpoint() {
+
+    stubFor(post("/down").willReturn(aResponse().withStatus(503)));
+    stubFor(
+        post("/up")
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoints(List.of(LOCALHOST.resolve("/down"), LOCALHOST.resolve("/up")))
+            .latencyAwareRouting(true)
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(verifier.verify("test")).isTrue();
+    }
+
+    verify(5, postRequestedFor(urlEqualTo("/down")));
+    assertThat(verifier.getEndpointStats())
+        .extracting(EndpointStats::isEjected)
+        .containsExactly(true, false);
+  }
+
+  @Test
+  void recordsMetrics() {
+
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=valid"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=broken"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":")));
+    SimpleVerifierMetrics metrics = new SimpleVerifierMetrics();
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .metrics(metrics)
+            .build();
+
+    assertThat(verifier.verify("valid")).isTrue();
+    assertThatThrownBy(() -> verifier.verify("broken"))
+        .isInstanceOf(FriendlyCaptchaException.class);
+
+    VerifierMetricsSnapshot snapshot = metrics.snapshot();
+    assertThat(snapshot.getVerificationCount()).isEqualTo(2);
+    assertThat(snapshot.getValidCount()).isOne();
+    assertThat(snapshot.getFailedCount()).isOne();
+    assertThat(snapshot.getUnreadableResponseCount()).isOne();
+    assertThat(snapshot.getStatusCounts()).containsEntry(200, 1L);
+    assertThat(snapshot.getLatencyP99()).isPositive();
+  }
+
+  @Test
+  void notifiesListenerOfEveryPhase() {
+
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=valid"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"success\":true}")));
+    List<String> phases = new CopyOnWriteArrayList<>();
+    List<Long> timestamps = new CopyOnWriteArrayList<>();
+    VerificationListener listener =
+        new VerificationListener() {
+          @Override
+          public void verificationStarted(long verificationId, long nanoTime) {
+            record("started " + verificationId, nanoTime);
+          }
+
+          @Override
+          public void requestBuilt(long verificationId, URI endpoint, long nanoTime) {
+            record("built " + verificationId + " " + endpoint, nanoTime);
+          }
+
+          @Override
+          public void requestSent(long verificationId, URI endpoint, long nanoTime) {
+            record("sent " + verificationId + " " + endpoint, nanoTime);
+          }
+
+          @Override
+          public void responseHeadersReceived(
+              long verificationId, URI endpoint, int statusCode, long nanoTime) {
+            record("headers " + verificationId + " " + statusCode, nanoTime);
+          }
+
+          @Override
+          public void responseParsed(long verificationId, URI endpoint, long nanoTime) {
+            record("parsed " + verificationId, nanoTime);
+          }
+
+          @Override
+          public void verificationCompleted(long verificationId, boolean valid, long nanoTime) {
+            record("completed " + verificationId + " " + valid, nanoTime);
+          }
+
+          private void record(String phase, long nanoTime) {
+            phases.add(phase);
+            timestamps.add(nanoTime);
+          }
+        };
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .listener(listener)
+            .build();
+
+    assertThat(verifier.verify("valid")).isTrue();
+
+    assertThat(phases)
+        .containsExactly(
+            "started 1",
+            "built 1 " + LOCALHOST,
+            "sent 1 " + LOCALHOST,
+            "headers 1 200",
+            "parsed 1",
+            "completed 1 true");
+    assertThat(timestamps).isSorted();
+  }
+
+  @Test
+  void emitsFlightRecorderEvents(@TempDir Path tempDir) throws Exception {
+
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=invalid"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"success\":false,\"error\":{\"error_code\":\"response_invalid\"}}")));
+    stubFor(
+        post("/")
+            .withRequestBody(equalTo("response=slow"))
+            .willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+    Path file = tempDir.resolve("verification.jfr");
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .socketTimeout(Duration.ofMillis(100))
+            .build();
+    try (Recording recording = new Recording()) {
+      recording.enable("org.drjekyll.friendlycaptcha.Verification");
+      recording.enable("org.drjekyll.friendlycaptcha.VerificationFailure");
+      recording.start();
+      assertThat(verifier.verify("invalid")).isFalse();
+      assertThatThrownBy(() -> verifier.verify("slow"))
+          .isInstanceOf(FriendlyCaptchaException.class);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertThat(events)
+        .filteredOn(e -> e.getEventType().getName().endsWith(".Verification"))
+        .extracting(
+            e -> e.getString("endpoint"),
+            e -> e.getString("version"),
+            e -> e.getInt("statusCode"),
+            e -> e.getString("errorCode"),
+            e -> e.getBoolean("valid"))
+        .containsExactlyInAnyOrder(
+            tuple(LOCALHOST.toString(), "V2", 200, "RESPONSE_INVALID", false),
+            tuple(LOCALHOST.toString(), "V2", 0, null, false));
+    assertThat(events)
+        .filteredOn(e -> e.getEventType().getName().endsWith(".VerificationFailure"))
+        .extracting(e -> e.getString("failure"), e -> e.getString("endpoint"))
+        .containsExactly(tuple("Timeout", LOCALHOST.toString()));
+  }
+
+  @Test
+  void warmsUpConnectionsWithoutVerifying() {
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoints(List.of(LOCALHOST, LOCALHOST.resolve("/eu")))
+            .apiKey(VALID_API_KEY)
+            .build();
+
+    verifier.warmUp();
+
+    verify(1, headRequestedFor(urlEqualTo("/")));
+    verify(1, headRequestedFor(urlEqualTo("/eu")));
+    verify(0, postRequestedFor(urlEqualTo("/")));
+  }
+
+  @Test
+  void keepsConnectionsAlive() throws Exception {
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .keepAliveInterval(Duration.ofMillis(50))
+            .build();
+
+    Thread.sleep(500);
+
+    assertThat(findAll(headRequestedFor(urlEqualTo("/")))).hasSizeGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  void doesNotRetryDefinitiveErrors() {
+
+    stubFor(
+        post("/")
+            .willReturn(
+                aResponse()
+                    .withStatus(400)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(
+                        "{\"success\":false,\"error\":{\"error_code\":\"response_duplicate\"}}")));
+
+    verifier =
+        FriendlyCaptchaVerifier.builder()
+            .version(FriendlyCaptchaVersion.V2)
+            .verificationEndpoint(LOCALHOST)
+            .apiKey(VALID_API_KEY)
+            .maxAttempts(3)
+            .build();
+
+    assertThatThrownBy(() -> verifier.verify("test"))
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .extracting("errorCode")
+        .isEqualTo(ErrorCode.RESPONSE_DUPLICATE);
+    verify(1, postRequestedFor(urlEqualTo("/")));
+  }
+
   @Test
   void invalidSolutionIsInvalidAsync() throws Exception {
 
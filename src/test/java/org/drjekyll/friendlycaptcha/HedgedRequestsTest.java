@@ -0,0 +1,116 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class HedgedRequestsTest {
+
+  private static final List<String> ENDPOINTS = List.of("global", "eu");
+
+  private static final FriendlyCaptchaException UNAVAILABLE =
+      new FriendlyCaptchaException("Verification API returned error status", 503);
+
+  private final Map<String, CompletableFuture<Boolean>> requests = new ConcurrentHashMap<>();
+
+  @Test
+  void sendsHedgedRequestAfterDelayAndCancelsSlowRequest() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(Duration.ofMillis(10).toNanos());
+
+    CompletableFuture<Boolean> result = hedgedRequests.execute(ENDPOINTS, this::request);
+
+    assertThat(result).isNotDone();
+    awaitRequest("eu").complete(true);
+    assertThat(result).isCompletedWithValue(true);
+    assertThat(requests.get("global")).isCancelled();
+  }
+
+  @Test
+  void releasesBulkheadSlotOfCancelledRequest() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(Duration.ofMillis(10).toNanos());
+    Bulkhead bulkhead = new Bulkhead(2, 0, null);
+
+    CompletableFuture<Boolean> result =
+        hedgedRequests.execute(ENDPOINTS, endpoint -> bulkhead.execute(() -> request(endpoint)));
+
+    awaitRequest("eu").complete(true);
+    assertThat(result).isCompletedWithValue(true);
+    assertThat(requests.get("global")).isCancelled();
+    assertThat(bulkhead.stats()).isEqualTo(new BulkheadStats(0, 0, 0, 2));
+  }
+
+  @Test
+  void failsOverWithoutDelayOnTransientFailure() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(Duration.ofHours(1).toNanos());
+
+    CompletableFuture<Boolean> result = hedgedRequests.execute(ENDPOINTS, this::request);
+    requests.get("global").completeExceptionally(UNAVAILABLE);
+
+    requests.get("eu").complete(false);
+    assertThat(result).isCompletedWithValue(false);
+  }
+
+  @Test
+  void acceptsDefinitiveErrorWithoutHedging() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(Duration.ofHours(1).toNanos());
+    FriendlyCaptchaException invalidKey =
+        new FriendlyCaptchaException(
+            "The provided API key was invalid", 401, ErrorCode.AUTH_INVALID);
+
+    CompletableFuture<Boolean> result = hedgedRequests.execute(ENDPOINTS, this::request);
+    requests.get("global").completeExceptionally(invalidKey);
+
+    assertThat(result)
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .withCause(invalidKey);
+    assertThat(requests).doesNotContainKey("eu");
+  }
+
+  @Test
+  void failsWhenAllEndpointsFail() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(Duration.ofHours(1).toNanos());
+
+    CompletableFuture<Boolean> result = hedgedRequests.execute(ENDPOINTS, this::request);
+    requests.get("global").completeExceptionally(UNAVAILABLE);
+    requests.get("eu").completeExceptionally(UNAVAILABLE);
+
+    assertThat(result)
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .withCause(UNAVAILABLE);
+  }
+
+  @Test
+  void hedgesAfterDefaultDelayUntilLatenciesAreKnown() {
+
+    HedgedRequests hedgedRequests = new HedgedRequests(-1);
+
+    assertThat(hedgedRequests.getHedgeDelayNanos()).isEqualTo(Duration.ofMillis(500).toNanos());
+  }
+
+  private CompletableFuture<Boolean> request(String endpoint) {
+    CompletableFuture<Boolean> request = new CompletableFuture<>();
+    requests.put(endpoint, request);
+    return request;
+  }
+
+  private CompletableFuture<Boolean> awaitRequest(String endpoint) {
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (!requests.containsKey(endpoint) && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    return requests.get(endpoint);
+  }
+}
@@ -0,0 +1,43 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LatencyHistogramTest {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @ParameterizedTest
+  @ValueSource(longs = {0, 7, 8, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE})
+  void bucketContainsValueWithinRelativeError(long value) {
+
+    int bucket = LatencyHistogram.bucket(value);
+
+    assertThat(LatencyHistogram.lowerBound(bucket)).isLessThanOrEqualTo(value);
+    assertThat(value - LatencyHistogram.lowerBound(bucket)).isLessThanOrEqualTo(value / 8);
+    if (value < Long.MAX_VALUE) {
+      assertThat(LatencyHistogram.lowerBound(bucket + 1)).isGreaterThan(value);
+    }
+  }
+
+  @Test
+  void returnsZeroWhenEmpty() {
+
+    assertThat(histogram.valueAt(0.99)).isZero();
+  }
+
+  @Test
+  void estimatesQuantiles() {
+
+    for (int i = 1; i <= 1_000; i++) {
+      histogram.record(i * 1_000L);
+    }
+
+    assertThat(histogram.valueAt(0.5)).isBetween(500_000L, 500_000L * 9 / 8);
+    assertThat(histogram.valueAt(0.99)).isBetween(990_000L, 990_000L * 9 / 8);
+    assertThat(histogram.valueAt(1)).isBetween(1_000_000L, 1_000_000L * 9 / 8);
+  }
+}
@@ -0,0 +1,43 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+
+  private final LatencyTracker latencyTracker = new LatencyTracker(0.95, 500);
+
+  @Test
+  void returnsDefaultUntilEnoughSamples() {
+
+    for (int i = 1; i <= 19; i++) {
+      latencyTracker.record(i);
+    }
+
+    assertThat(latencyTracker.getPercentileNanos()).isEqualTo(500);
+  }
+
+  @Test
+  void estimatesPercentileOfRecentSamples() {
+
+    for (int i = 1; i <= 160; i++) {
+      latencyTracker.record(i);
+    }
+
+    assertThat(latencyTracker.getPercentileNanos()).isEqualTo(152);
+  }
+
+  @Test
+  void forgetsOldestSamples() {
+
+    for (int i = 0; i < 256; i++) {
+      latencyTracker.record(1_000);
+    }
+    for (int i = 0; i < 256; i++) {
+      latencyTracker.record(10);
+    }
+
+    assertThat(latencyTracker.getPercentileNanos()).isEqualTo(10);
+  }
+}
@@ -0,0 +1,81 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class LocalPowVerifierTest {
+
+  private static final String SOLUTION =
+      "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AAAAAHSLAQABAAAAmgEBAAIAAABd2gAAAwAAAK/1FwAEAAAAKmMPAAUAAACUBgEABgAAAGhAEAAHAAAAk20FAAgAAAAzWwgACQAAAIxKEwAKAAAAiK4NAAsAAACtYgkADAAAAIb3AwANAAAAM10CAA4AAAA/2gIADwAAAETWDQAQAAAA4hMEABEAAACBjwgAEgAAALgHBAATAAAA1S8CABQAAACiNAMAFQAAAMpGGgAWAAAAokIVABcAAAAJxQgAGAAAAKgMCQAZAAAA0aMJABoAAACJKAgAGwAAAC25BwAcAAAA3tALAB0AAAB8kQQAHgAAAHlVFAAfAAAAMDgnACAAAAAesRcAIQAAACRXHQAiAAAA0hYLACMAAADS5iYAJAAAAE39AwAlAAAAZkIAACYAAACl/BQAJwAAAM5+BAAoAAAAg6sTACkAAABKpAsAKgAAANTHFgArAAAAOwgLACwAAAA1EAkALQAAAPnrGwAuAAAAXdgyAC8AAAAVQAoA.AgAF";
+
+  /** The creation time of the puzzle of {@link #SOLUTION}. */
+  private static final long SOLVED_AT = 1_649_776_320L;
+
+  private final LocalPowVerifier localPowVerifier = new LocalPowVerifier();
+
+  @Test
+  void acceptsSolvedPuzzle() {
+
+    assertThat(localPowVerifier.verify(SOLUTION, SOLVED_AT)).isTrue();
+    assertThat(localPowVerifier.check(SOLUTION, SOLVED_AT)).isNull();
+  }
+
+  @Test
+  void rejectsTamperedNonce() {
+
+    String tampered = SOLUTION.replace(".AAAAAHSLAQAB", ".AAAAAHSLAQEB");
+
+    assertThat(localPowVerifier.verify(tampered, SOLVED_AT)).isFalse();
+    assertThat(localPowVerifier.check(tampered, SOLVED_AT)).isEqualTo(ErrorCode.SOLUTION_INVALID);
+  }
+
+  @Test
+  void rejectsExpiredPuzzle() {
+
+    assertThat(localPowVerifier.verify(SOLUTION)).isFalse();
+    assertThat(localPowVerifier.check(SOLUTION, SOLVED_AT + 3631))
+        .isEqualTo(ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE);
+  }
+
+  @Test
+  void rejectsUnsolvedPuzzle() {
+
+    String unsolved = solution(SolutionPreCheck.PUZZLE_HEADER_LENGTH, 255);
+
+    assertThat(localPowVerifier.check(unsolved, SOLVED_AT)).isEqualTo(ErrorCode.SOLUTION_INVALID);
+  }
+
+  @Test
+  void leavesPuzzlesTooLongToCheckToApi() {
+
+    String solution = solution(128, 255);
+
+    assertThat(localPowVerifier.check(solution, SOLVED_AT)).isNull();
+    assertThat(localPowVerifier.verify(solution, SOLVED_AT)).isFalse();
+  }
+
+  @Test
+  void rejectsMissingSolution() {
+
+    assertThat(localPowVerifier.verify(null)).isFalse();
+    assertThat(localPowVerifier.verify("")).isFalse();
+    assertThat(localPowVerifier.verify(".UNFINISHED")).isFalse();
+  }
+
+  /** A puzzle that never expires, with one solution of zeros. */
+  private static String solution(int puzzleLength, int difficulty) {
+    ByteBuffer puzzle = ByteBuffer.allocate(puzzleLength);
+    puzzle.putInt(0, (int) SOLVED_AT);
+    puzzle.put(14, (byte) 1);
+    puzzle.put(15, (byte) difficulty);
+    Base64.Encoder encoder = Base64.getEncoder();
+    return "93b573652d6aefb0496856a0e928661c."
+        + encoder.encodeToString(puzzle.array())
+        + '.'
+        + encoder.encodeToString(new byte[SolutionPreCheck.SOLUTION_LENGTH])
+        + ".AgAF";
+  }
+}
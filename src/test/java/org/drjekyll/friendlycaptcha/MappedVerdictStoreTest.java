@@ -0,0 +1,128 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedVerdictStoreTest {
+
+  private static final Duration TTL = Duration.ofSeconds(30);
+
+  @TempDir Path directory;
+
+  private long now = 1_700_000_000_000L;
+
+  private MappedVerdictStore store;
+
+  @AfterEach
+  void closeStore() throws IOException {
+    store.close();
+  }
+
+  @Test
+  void returnsFirstVerdict() throws IOException {
+
+    store = open(1024);
+    store.put(1, 2, true);
+    store.put(1, 2, false);
+
+    assertThat(store.get(1, 2)).isTrue();
+    assertThat(store.get(1, 3)).isNull();
+    assertThat(store.getStats()).isEqualTo(new VerdictCacheStats(1, 1, 0, 1));
+  }
+
+  @Test
+  void expiresVerdictsAfterTimeToLive() throws IOException {
+
+    store = open(1024);
+    store.put(1, 2, false);
+    now += TTL.toMillis() - 1;
+    assertThat(store.get(1, 2)).isFalse();
+
+    now++;
+    assertThat(store.get(1, 2)).isNull();
+  }
+
+  @Test
+  void keepsVerdictStoredBehindExpiredSlot() throws IOException {
+
+    store = open(1024);
+    store.put(1, 1, true);
+    now += TTL.toMillis() / 2;
+    store.put(1, 2, true);
+    now += TTL.toMillis() / 2;
+
+    store.put(1, 2, false);
+
+    assertThat(store.get(1, 2)).isTrue();
+    assertThat(store.getStats().getSize()).isOne();
+  }
+
+  @Test
+  void sharesVerdictsBetweenProcesses() throws IOException {
+
+    store = open(1024);
+    try (MappedVerdictStore other = open(1000)) {
+      other.put(7, 8, true);
+    }
+
+    assertThat(store.get(7, 8)).isTrue();
+  }
+
+  @Test
+  void keepsVerdictsAcrossRestarts() throws IOException {
+
+    try (MappedVerdictStore previous = open(1024)) {
+      previous.put(7, 8, true);
+    }
+    store = open(1024);
+
+    assertThat(store.get(7, 8)).isTrue();
+  }
+
+  @Test
+  void evictsVerdictThatExpiresFirstWhenFull() throws IOException {
+
+    store = open(1);
+    store.put(1, 1, true);
+    now++;
+    store.put(2, 2, false);
+
+    assertThat(store.get(1, 1)).isNull();
+    assertThat(store.get(2, 2)).isFalse();
+    assertThat(store.getStats().getEvictionCount()).isOne();
+  }
+
+  @Test
+  void failsOnDifferentNumberOfSlots() throws IOException {
+
+    store = open(1024);
+
+    assertThatThrownBy(() -> open(4096))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageEndingWith("has 1024 slots, not 4096");
+  }
+
+  @Test
+  void failsOnOtherFile() throws IOException {
+
+    store = open(16);
+    Path file = directory.resolve("other");
+    Files.writeString(file, "not a verdict store, but long enough to have a header of 64 bytes");
+
+    assertThatThrownBy(() -> MappedVerdictStore.open(file, 16, TTL))
+        .isInstanceOf(IOException.class)
+        .hasMessageStartingWith("Not a verdict store");
+  }
+
+  private MappedVerdictStore open(int slots) throws IOException {
+    return MappedVerdictStore.open(directory.resolve("verdicts"), slots, TTL, () -> now);
+  }
+}
@@ -0,0 +1,111 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+  private static final long INTERVAL = Duration.ofMillis(100).toNanos();
+
+  private static final FriendlyCaptchaException TOO_MANY_REQUESTS =
+      FriendlyCaptchaException.ofErrorResponse("Verification API returned error status", 429, null);
+
+  private long now;
+
+  private final RateLimiter rateLimiter = new RateLimiter(10, 3, Duration.ofMillis(150), () -> now);
+
+  @Test
+  void letsBurstThroughAndSpacesFurtherRequests() {
+
+    assertThat(rateLimiter.reserve(now)).isZero();
+    assertThat(rateLimiter.reserve(now)).isZero();
+    assertThat(rateLimiter.reserve(now)).isZero();
+    assertThat(rateLimiter.reserve(now)).isEqualTo(INTERVAL);
+    assertThat(rateLimiter.reserve(now)).isEqualTo(-1);
+
+    now += INTERVAL;
+
+    assertThat(rateLimiter.reserve(now)).isEqualTo(INTERVAL);
+  }
+
+  @Test
+  void rejectsRequestsBeyondMaximumWait() {
+
+    for (int i = 0; i < 4; i++) {
+      rateLimiter.execute(() -> CompletableFuture.completedFuture(true));
+    }
+
+    assertThat(rateLimiter.execute(() -> CompletableFuture.completedFuture(true)))
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .havingCause()
+        .isInstanceOf(RateLimitedException.class)
+        .withMessage("Verification API rate limit reached");
+    assertThat(rateLimiter.stats()).isEqualTo(new RateLimiterStats(10, 1, 1, 0));
+  }
+
+  @Test
+  void cancelsRequest() {
+
+    CompletableFuture<Boolean> request = new CompletableFuture<>();
+
+    rateLimiter.execute(() -> request).cancel(true);
+
+    assertThat(request).isCancelled();
+  }
+
+  @Test
+  void halvesRateOncePerRoundTripOnTooManyRequests() {
+
+    long sentAt = now;
+    now += INTERVAL;
+    rateLimiter.record(sentAt, TOO_MANY_REQUESTS);
+    rateLimiter.record(sentAt, TOO_MANY_REQUESTS);
+
+    assertThat(rateLimiter.stats()).isEqualTo(new RateLimiterStats(5, 0, 0, 2));
+
+    rateLimiter.record(now, TOO_MANY_REQUESTS);
+
+    assertThat(rateLimiter.stats().getRate()).isEqualTo(2.5);
+  }
+
+  @Test
+  void restoresRateGraduallyOnSuccess() {
+
+    rateLimiter.record(now, TOO_MANY_REQUESTS);
+    rateLimiter.record(now, null);
+
+    assertThat(rateLimiter.stats().getRate()).isBetween(5.0, 10.0);
+
+    for (int i = 0; i < 20; i++) {
+      rateLimiter.record(now, null);
+    }
+
+    assertThat(rateLimiter.stats().getRate()).isEqualTo(10);
+  }
+
+  @Test
+  void pausesUntilRetryAfterHasPassed() {
+
+    rateLimiter.record(now, TOO_MANY_REQUESTS.withRetryAfter(Duration.ofSeconds(1)));
+
+    assertThat(rateLimiter.reserve(now)).isEqualTo(-1);
+
+    now += Duration.ofSeconds(1).toNanos();
+
+    assertThat(rateLimiter.reserve(now)).isZero();
+  }
+
+  @Test
+  void failsOnInvalidRate() {
+
+    assertThatThrownBy(() -> new RateLimiter(0, 1, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Rate limit must be positive");
+  }
+}
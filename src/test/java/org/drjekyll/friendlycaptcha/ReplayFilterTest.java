@@ -0,0 +1,92 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ReplayFilterTest {
+
+  private static final long INTERVAL = Duration.ofMinutes(20).toNanos();
+
+  private long now;
+
+  private final ReplayFilter replayFilter =
+      new ReplayFilter(1 << 16, 0.01, Duration.ofHours(1), () -> now);
+
+  @Test
+  void recognisesSeenSolutions() {
+
+    assertThat(markSeen(SolutionHash.of("first"))).isFalse();
+    assertThat(markSeen(SolutionHash.of("second"))).isFalse();
+    assertThat(markSeen(SolutionHash.of("first"))).isTrue();
+
+    assertThat(replayFilter.stats().getNewCount()).isEqualTo(2);
+    assertThat(replayFilter.stats().getSeenCount()).isOne();
+  }
+
+  @Test
+  void remembersSolutionsForWindow() {
+
+    markSeen(SolutionHash.of("first"));
+    for (int i = 0; i < ReplayFilter.GENERATIONS - 1; i++) {
+      now += INTERVAL;
+      markSeen(SolutionHash.of("other" + i));
+    }
+
+    assertThat(markSeen(SolutionHash.of("first"))).isTrue();
+    assertThat(replayFilter.stats().getRotationCount()).isEqualTo(3);
+  }
+
+  @Test
+  void forgetsSolutionsAfterQuietPeriod() {
+
+    markSeen(SolutionHash.of("first"));
+    now += ReplayFilter.GENERATIONS * INTERVAL;
+
+    assertThat(markSeen(SolutionHash.of("first"))).isFalse();
+    assertThat(replayFilter.stats().getRotationCount()).isEqualTo(ReplayFilter.GENERATIONS);
+  }
+
+  @Test
+  void keepsFalsePositiveRateWhenFull() {
+
+    SplittableRandom random = new SplittableRandom(42);
+    int solutions = 100_000;
+    for (int i = 0; i < solutions; i++) {
+      markSeen(new SolutionHash(random.nextLong(), random.nextLong()));
+    }
+
+    ReplayFilterStats stats = replayFilter.stats();
+    assertThat(stats.getMemoryBytes()).isEqualTo(1 << 16);
+    assertThat(stats.getRotationCount()).isPositive();
+    assertThat((double) stats.getSeenCount() / solutions).isLessThan(0.02);
+  }
+
+  @Test
+  void recognisesOnlyAddedSolutions() {
+
+    assertThat(replayFilter.mightContain(SolutionHash.of("first"))).isFalse();
+    assertThat(replayFilter.mightContain(SolutionHash.of("first"))).isFalse();
+
+    replayFilter.add(SolutionHash.of("first"));
+
+    assertThat(replayFilter.mightContain(SolutionHash.of("first"))).isTrue();
+  }
+
+  @Test
+  void failsOnInvalidFalsePositiveRate() {
+
+    assertThatThrownBy(() -> new ReplayFilter(1 << 16, 1, Duration.ofHours(1)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Replay filter false positive rate must be between 0 and 1");
+  }
+
+  private boolean markSeen(SolutionHash hash) {
+    boolean seen = replayFilter.mightContain(hash);
+    replayFilter.add(hash);
+    return seen;
+  }
+}
@@ -0,0 +1,163 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RetryTest {
+
+  private static final FriendlyCaptchaException UNAVAILABLE =
+      new FriendlyCaptchaException("Verification API returned error status", 503);
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void retriesTransientFailuresUntilSuccess() {
+
+    Retry retry = new Retry(3, Duration.ofMillis(1), null);
+
+    CompletableFuture<Boolean> result =
+        retry.execute(
+            () ->
+                calls.incrementAndGet() < 3
+                    ? CompletableFuture.failedFuture(
+                        new FriendlyCaptchaException(
+                            "Could not check solution", new IOException("Connection reset")))
+                    : CompletableFuture.completedFuture(true));
+
+    assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo(true);
+    assertThat(calls).hasValue(3);
+  }
+
+  @Test
+  void givesUpAfterMaxAttempts() {
+
+    Retry retry = new Retry(2, Duration.ofMillis(1), null);
+
+    CompletableFuture<Boolean> result = retry.execute(this::unavailable);
+
+    assertThat(result)
+        .failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .withCause(UNAVAILABLE);
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void doesNotRetryResponsesWithErrorCode() {
+
+    Retry retry = new Retry(3, Duration.ofMillis(1), null);
+
+    CompletableFuture<Boolean> result =
+        retry.execute(
+            () -> {
+              calls.incrementAndGet();
+              return CompletableFuture.failedFuture(
+                  new FriendlyCaptchaException(
+                      "The solution was invalid", 400, ErrorCode.SOLUTION_INVALID));
+            });
+
+    assertThat(result).failsWithin(Duration.ZERO);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void doesNotRetryCancelledAttempt() {
+
+    Retry retry = new Retry(3, Duration.ofMillis(1), null);
+
+    CompletableFuture<Boolean> result =
+        retry.execute(
+            () -> {
+              calls.incrementAndGet();
+              return CompletableFuture.failedFuture(new CancellationException("Abandoned"));
+            });
+
+    assertThat(result).failsWithin(Duration.ZERO);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void doesNotRetryBeyondDeadline() {
+
+    Retry retry = new Retry(3, Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+    CompletableFuture<Boolean> result = retry.execute(this::unavailable);
+
+    assertThat(result).failsWithin(Duration.ZERO);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void prefersRetryAfterOverBackoff() {
+
+    Retry retry = new Retry(2, Duration.ofHours(1), null);
+
+    CompletableFuture<Boolean> result =
+        retry.execute(
+            () ->
+                calls.incrementAndGet() == 1
+                    ? CompletableFuture.failedFuture(UNAVAILABLE.withRetryAfter(Duration.ZERO))
+                    : CompletableFuture.completedFuture(false));
+
+    assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isEqualTo(false);
+  }
+
+  @Test
+  void failsRightAwayWhenRetryAfterExceedsDeadline() {
+
+    Retry retry = new Retry(3, Duration.ofMillis(1), Duration.ofSeconds(1));
+
+    CompletableFuture<Boolean> result =
+        retry.execute(
+            () -> {
+              calls.incrementAndGet();
+              return CompletableFuture.failedFuture(
+                  UNAVAILABLE.withRetryAfter(Duration.ofSeconds(2)));
+            });
+
+    assertThat(result).failsWithin(Duration.ZERO);
+    assertThat(calls).hasValue(1);
+  }
+
+  @Test
+  void cancelsAttemptInFlight() {
+
+    Retry retry = new Retry(3, Duration.ofMillis(1), null);
+    CompletableFuture<Boolean> attempt = new CompletableFuture<>();
+
+    retry.execute(() -> attempt).cancel(true);
+
+    assertThat(attempt).isCancelled();
+  }
+
+  @Test
+  void parsesRetryAfterHeader() {
+
+    Clock clock = Clock.fixed(Instant.parse("2015-10-21T07:28:00Z"), ZoneOffset.UTC);
+
+    assertThat(Retry.parseRetryAfter("120", clock)).isEqualTo(Duration.ofMinutes(2));
+    assertThat(Retry.parseRetryAfter("Wed, 21 Oct 2015 07:28:30 GMT", clock))
+        .isEqualTo(Duration.ofSeconds(30));
+    assertThat(Retry.parseRetryAfter("Wed, 21 Oct 2015 07:27:00 GMT", clock))
+        .isEqualTo(Duration.ZERO);
+    assertThat(Retry.parseRetryAfter("86400", clock)).isEqualTo(Retry.MAX_RETRY_AFTER);
+    assertThat(Retry.parseRetryAfter("-1", clock)).isNull();
+    assertThat(Retry.parseRetryAfter("soon", clock)).isNull();
+    assertThat(Retry.parseRetryAfter(null, clock)).isNull();
+  }
+
+  private CompletableFuture<Boolean> unavailable() {
+    calls.incrementAndGet();
+    return CompletableFuture.failedFuture(UNAVAILABLE);
+  }
+}
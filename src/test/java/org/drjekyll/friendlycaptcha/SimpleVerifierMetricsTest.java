@@ -0,0 +1,64 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class SimpleVerifierMetricsTest {
+
+  private final SimpleVerifierMetrics metrics = new SimpleVerifierMetrics();
+
+  @Test
+  void countsVerificationsAndResponses() {
+
+    metrics.verificationStarted();
+    metrics.verificationStarted();
+    metrics.verificationStarted();
+    metrics.responseReceived(200, null);
+    metrics.verificationCompleted(true, Duration.ofMillis(20).toNanos());
+    metrics.responseReceived(400, ErrorCode.SOLUTION_INVALID);
+    metrics.verificationFailed(
+        new FriendlyCaptchaException("The solution was invalid"), Duration.ofMillis(40).toNanos());
+    metrics.requestTimedOut();
+    metrics.responseUnreadable();
+
+    VerifierMetricsSnapshot snapshot = metrics.snapshot();
+
+    assertThat(snapshot.getVerificationCount()).isEqualTo(3);
+    assertThat(snapshot.getValidCount()).isOne();
+    assertThat(snapshot.getInvalidCount()).isZero();
+    assertThat(snapshot.getFailedCount()).isOne();
+    assertThat(snapshot.getInFlightCount()).isOne();
+    assertThat(snapshot.getLatencyP50()).isBetween(Duration.ofMillis(20), Duration.ofMillis(23));
+    assertThat(snapshot.getLatencyP999()).isBetween(Duration.ofMillis(40), Duration.ofMillis(45));
+    assertThat(snapshot.getTimeoutCount()).isOne();
+    assertThat(snapshot.getUnreadableResponseCount()).isOne();
+    assertThat(snapshot.getStatusCounts()).containsExactly(Map.entry(200, 1L), Map.entry(400, 1L));
+    assertThat(snapshot.getErrorCodeCounts())
+        .containsExactly(Map.entry(ErrorCode.SOLUTION_INVALID, 1L));
+  }
+
+  @Test
+  void exposesMetricsViaJmx() throws Exception {
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("org.drjekyll.friendlycaptcha:type=VerifierMetrics,name=test");
+    metrics.verificationStarted();
+    metrics.responseReceived(503, null);
+
+    server.registerMBean(metrics, name);
+    try {
+      assertThat(server.getAttribute(name, "VerificationCount")).isEqualTo(1L);
+      assertThat(server.getAttribute(name, "InFlightCount")).isEqualTo(1L);
+      assertThat(server.getAttribute(name, "LatencyP99Micros")).isEqualTo(0L);
+      assertThat(server.getAttribute(name, "StatusCounts")).isNotNull();
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+}
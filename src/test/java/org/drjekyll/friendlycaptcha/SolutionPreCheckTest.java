@@ -0,0 +1,117 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SolutionPreCheckTest {
+
+  private static final String SIGNATURE = "93b573652d6aefb0496856a0e928661c";
+
+  private static final long NOW = 1_700_000_000L;
+
+  @Test
+  void acceptsWellFormedSolution() {
+
+    assertThat(SolutionPreCheck.checkV1(solution(NOW - 60, 12, 3), NOW)).isNull();
+  }
+
+  @Test
+  void acceptsPuzzleThatNeverExpires() {
+
+    assertThat(SolutionPreCheck.checkV1(solution(0, 0, 3), NOW)).isNull();
+  }
+
+  @Test
+  void rejectsExpiredPuzzle() {
+
+    assertThat(SolutionPreCheck.checkV1(solution(NOW - 3631, 12, 3), NOW))
+        .isEqualTo(ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE);
+  }
+
+  @Test
+  void leavesRecentlyExpiredPuzzleToApi() {
+
+    assertThat(SolutionPreCheck.checkV1(solution(NOW - 3601, 12, 3), NOW)).isNull();
+    assertThat(SolutionPreCheck.checkV1(solution(NOW - 3630, 12, 3), NOW)).isNull();
+  }
+
+  @Test
+  void rejectsWrongNumberOfSolutions() {
+
+    String solution = solution(NOW, 12, 3);
+    int solutionsEnd = solution.lastIndexOf('.');
+
+    assertThat(
+            SolutionPreCheck.checkV1(
+                solution.substring(0, solutionsEnd - 4) + solution.substring(solutionsEnd), NOW))
+        .isEqualTo(ErrorCode.SOLUTION_INVALID);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        ".UNSTARTED",
+        ".FETCHING",
+        ".UNFINISHED",
+        "test",
+        "93b573652d6aefb0496856a0e928661c",
+        "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=",
+        "93b573652d6aefb0496856a0e928661c.YlWWwKqT.AAAAAHSLAQA=.AgAF",
+        "93b573652d6aefb0496856a0e92866zz.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AAAA.AgAF",
+        "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AA#A.AgAF",
+        "93b573652d6aefb0496856a0e928661c.YlWWwKqT3fMFowr/AQwwngAAAAAAAAAA3evEukjCNZE=.AAAA.AgAF.x"
+      })
+  void rejectsMalformedSolution(String solution) {
+
+    assertThat(SolutionPreCheck.checkV1(solution, NOW)).isEqualTo(ErrorCode.SOLUTION_INVALID);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {".UNSTARTED", ".ERROR", "with space", "tab\there", "ümlaut"})
+  void rejectsMalformedV2Response(String response) {
+
+    assertThat(SolutionPreCheck.checkV2(response)).isEqualTo(ErrorCode.RESPONSE_INVALID);
+  }
+
+  @Test
+  void acceptsV2Response() {
+
+    assertThat(SolutionPreCheck.checkV2("abc.DEF-123_xyz")).isNull();
+  }
+
+  @Test
+  void decodesBytesLikeBase64Decoder() {
+
+    byte[] bytes = new byte[32];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (i * 37);
+    }
+    String encoded = "x" + Base64.getEncoder().encodeToString(bytes);
+
+    for (int i = 0; i < bytes.length; i++) {
+      assertThat(SolutionPreCheck.decodeByte(encoded, 1, i)).isEqualTo(bytes[i] & 0xff);
+    }
+    assertThat(SolutionPreCheck.decodedLength(encoded, 1, encoded.length())).isEqualTo(32);
+  }
+
+  private static String solution(long timestamp, int expiry, int solutionCount) {
+    ByteBuffer puzzle = ByteBuffer.allocate(SolutionPreCheck.PUZZLE_HEADER_LENGTH);
+    puzzle.putInt(0, (int) timestamp);
+    puzzle.put(13, (byte) expiry);
+    puzzle.put(14, (byte) solutionCount);
+    puzzle.put(15, (byte) 150);
+    Base64.Encoder encoder = Base64.getEncoder();
+    return SIGNATURE
+        + '.'
+        + encoder.encodeToString(puzzle.array())
+        + '.'
+        + encoder.encodeToString(new byte[solutionCount * SolutionPreCheck.SOLUTION_LENGTH])
+        + '.'
+        + encoder.encodeToString(new byte[] {2, 0, 5});
+  }
+}
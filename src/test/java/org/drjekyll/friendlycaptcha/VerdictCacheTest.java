@@ -0,0 +1,76 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class VerdictCacheTest {
+
+  private static final SolutionHash FIRST = SolutionHash.of("first");
+
+  private static final SolutionHash SECOND = SolutionHash.of("second");
+
+  private static final SolutionHash THIRD = SolutionHash.of("third");
+
+  private long now;
+
+  private final VerdictCache cache = new VerdictCache(2, Duration.ofNanos(100), () -> now);
+
+  @Test
+  void returnsFirstVerdict() {
+
+    cache.put(FIRST, true);
+    cache.put(FIRST, false);
+
+    assertThat(cache.get(FIRST)).isTrue();
+    assertThat(cache.get(SECOND)).isNull();
+    assertThat(cache.stats()).isEqualTo(new VerdictCacheStats(1, 1, 0, 1));
+  }
+
+  @Test
+  void expiresVerdictsAfterTimeToLive() {
+
+    cache.put(FIRST, true);
+    now = 99;
+    assertThat(cache.get(FIRST)).isTrue();
+
+    now = 100;
+    assertThat(cache.get(FIRST)).isNull();
+
+    cache.put(SECOND, false);
+    assertThat(cache.stats()).isEqualTo(new VerdictCacheStats(1, 1, 1, 1));
+  }
+
+  @Test
+  void evictsOldestVerdictWhenFull() {
+
+    cache.put(FIRST, true);
+    now = 10;
+    cache.put(SECOND, false);
+    now = 20;
+    cache.put(THIRD, true);
+
+    assertThat(cache.get(FIRST)).isNull();
+    assertThat(cache.get(SECOND)).isFalse();
+    assertThat(cache.get(THIRD)).isTrue();
+    assertThat(cache.stats().getEvictionCount()).isEqualTo(1);
+    assertThat(cache.stats().getSize()).isEqualTo(2);
+  }
+
+  @Test
+  void requiresPositiveTimeToLive() {
+
+    assertThatThrownBy(() -> new VerdictCache(1, Duration.ZERO))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Verdict cache time to live must be positive");
+  }
+
+  @Test
+  void distinguishesSolutionsByHash() {
+
+    assertThat(SolutionHash.of("same")).isEqualTo(SolutionHash.of("same"));
+    assertThat(SolutionHash.of("same")).isNotEqualTo(SolutionHash.of("Same"));
+  }
+}
@@ -0,0 +1,207 @@
+package org.drjekyll.friendlycaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+class VerificationResponseReaderTest {
+
+  private final VerificationResponseReader reader =
+      new VerificationResponseReader(new ObjectMapper());
+
+  @Test
+  void readsSuccessWithoutAllocatingResponse() {
+
+    assertThat(read("{\"success\":true}")).isSameAs(VerificationResponse.SUCCESS);
+  }
+
+  @Test
+  void skipsV2Data() {
+
+    VerificationResponse response =
+        read(
+            "{\"success\":true,\"data\":{\"event_id\":\"abc123\",\"challenge\":{\"timestamp\":\"2024-01-01T00:00:00Z\",\"origin\":\"https://example.com\"},\"risk_intelligence\":null,\"success\":false,\"errors\":[\"secret_invalid\"]}}");
+
+    assertThat(response).isSameAs(VerificationResponse.SUCCESS);
+  }
+
+  @Test
+  void readsFirstKnownV1ErrorAndDetails() {
+
+    VerificationResponse response =
+        read(
+            "{\"errors\":[\"unknown_code\",\"solution_invalid\",\"secret_invalid\"],\"success\":false,\"details\":\"Nope\"}");
+
+    assertThat(response.isSuccess()).isFalse();
+    assertThat(response.getErrorCode()).isEqualTo(ErrorCode.SOLUTION_INVALID);
+    assertThat(response.getDetails()).isEqualTo("Nope");
+  }
+
+  @Test
+  void readsV2Error() {
+
+    VerificationResponse response =
+        read(
+            "{\"success\":false,\"error\":{\"detail\":\"expired\",\"error_code\":\"response_timeout\"}}");
+
+    assertThat(response.isSuccess()).isFalse();
+    assertThat(response.getErrorCode()).isEqualTo(ErrorCode.REQUEST_TIMEOUT);
+    assertThat(response.getDetails()).isNull();
+  }
+
+  @Test
+  void readsV2ErrorAfterNestedMember() {
+
+    VerificationResponse response =
+        read(
+            "{\"success\":false,\"error\":{\"detail\":{\"errors\":[\"bad\"]},\"error_code\":\"auth_invalid\"}}");
+
+    assertThat(response.isSuccess()).isFalse();
+    assertThat(response.getErrorCode()).isEqualTo(ErrorCode.AUTH_INVALID);
+  }
+
+  @Test
+  void failsOnEmptyBody() {
+
+    assertThatThrownBy(() -> read(""))
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .hasMessage("Could not read response from verification API");
+  }
+
+  @Test
+  void failsOnNonObjectBody() {
+
+    assertThatThrownBy(() -> read("[true]"))
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .hasMessage("Could not read response from verification API");
+  }
+
+  @Test
+  void failsOnMalformedBody() {
+
+    assertThatThrownBy(() -> read("<html>Bad Gateway</html>"))
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .hasMessage("Could not read response from verification API")
+        .hasCauseInstanceOf(Exception.class);
+  }
+
+  @Test
+  void decodesResponseSplitAcrossBuffers() throws Exception {
+
+    byte[] json =
+        "{\"success\":false,\"errors\":[\"solution_timeout_or_duplicate\"],\"details\":\"Too late\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    HttpResponse.BodySubscriber<VerificationResponse> subscriber = subscribe();
+
+    for (byte b : json) {
+      subscriber.onNext(List.of(ByteBuffer.wrap(new byte[] {b})));
+    }
+    subscriber.onComplete();
+
+    VerificationResponse response = subscriber.getBody().toCompletableFuture().get();
+    assertThat(response.isSuccess()).isFalse();
+    assertThat(response.getErrorCode()).isEqualTo(ErrorCode.SOLUTION_TIMEOUT_OR_DUPLICATE);
+    assertThat(response.getDetails()).isEqualTo("Too late");
+  }
+
+  @Test
+  void failsOnTruncatedBodyWithoutBlocking() {
+
+    HttpResponse.BodySubscriber<VerificationResponse> subscriber = subscribe();
+
+    subscriber.onNext(List.of(ByteBuffer.wrap("{\"success\":tr".getBytes(StandardCharsets.UTF_8))));
+    subscriber.onComplete();
+
+    assertThatThrownBy(() -> subscriber.getBody().toCompletableFuture().get())
+        .isInstanceOf(ExecutionException.class)
+        .cause()
+        .isInstanceOf(FriendlyCaptchaException.class)
+        .hasMessage("Could not read response from verification API");
+  }
+
+  @Test
+  void readsUndecodableErrorBodyAsFailure() throws Exception {
+
+    HttpResponse.BodySubscriber<VerificationResponse> subscriber = subscribe(502);
+
+    subscriber.onNext(
+        List.of(ByteBuffer.wrap("<html>Bad Gateway</html>".getBytes(StandardCharsets.UTF_8))));
+    subscriber.onComplete();
+
+    assertThat(subscriber.getBody().toCompletableFuture().get())
+        .isSameAs(VerificationResponse.FAILURE);
+  }
+
+  @Test
+  void passesOnTransportErrors() {
+
+    HttpResponse.BodySubscriber<VerificationResponse> subscriber = subscribe();
+    IOException failure = new IOException("Connection reset");
+
+    subscriber.onError(failure);
+
+    assertThat(subscriber.getBody().toCompletableFuture())
+        .isCompletedExceptionally()
+        .failsWithin(Duration.ZERO)
+        .withThrowableOfType(ExecutionException.class)
+        .withCause(failure);
+  }
+
+  private HttpResponse.BodySubscriber<VerificationResponse> subscribe() {
+    return subscribe(200);
+  }
+
+  private HttpResponse.BodySubscriber<VerificationResponse> subscribe(int statusCode) {
+    HttpResponse.BodySubscriber<VerificationResponse> subscriber =
+        reader
+            .bodyHandler()
+            .apply(
+                new HttpResponse.ResponseInfo() {
+                  @Override
+                  public int statusCode() {
+                    return statusCode;
+                  }
+
+                  @Override
+                  public HttpHeaders headers() {
+                    return HttpHeaders.of(Map.of(), (name, value) -> true);
+                  }
+
+                  @Override
+                  public HttpClient.Version version() {
+                    return HttpClient.Version.HTTP_1_1;
+                  }
+                });
+    subscriber.onSubscribe(
+        new Flow.Subscription() {
+          @Override
+          public void request(long n) {
+            // all data is pushed by the test
+          }
+
+          @Override
+          public void cancel() {
+            // nothing to release
+          }
+        });
+    return subscriber;
+  }
+
+  private VerificationResponse read(String json) {
+    return reader.readResponse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+}